@@ -0,0 +1,75 @@
+package com.company.benchmarks;
+
+import com.company.DataHolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inputs shared by the benchmarks: the data file and the pressures of the tasks of Main.
+ * Reactor models are taken from Main itself, see {@link com.company.Main#getChlorideModel}
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Points DataHolder at Bank_TD_Fragment.dat when the benchmarks are started from benchmarks/
+     * instead of the project directory and system property algan.data is not set
+     */
+    static void useDataFile() {
+        if (System.getProperty("algan.data") == null && !new File(DataHolder.getDataFile()).exists()) {
+            File parent = new File("..", "Bank_TD_Fragment.dat");
+            if (parent.exists()) {
+                DataHolder.setDataFile(parent.getPath());
+            }
+        }
+        if (DataHolder.getCache() == null) {
+            throw new IllegalStateException("Cannot read " + DataHolder.getDataFile() + ", set -Dalgan.data");
+        }
+    }
+
+    /**
+     * @return Pg of tasks 1 and 2
+     */
+    static Map<String, Double> chloridePressure() {
+        Map<String, Double> pressure = new HashMap<String, Double>();
+        pressure.put("HCl", 10000d);
+        pressure.put("N2", 90000d);
+        pressure.put("AlCl", 0d);
+        pressure.put("AlCl2", 0d);
+        pressure.put("AlCl3", 0d);
+        pressure.put("GaCl", 0d);
+        pressure.put("GaCl2", 0d);
+        pressure.put("GaCl3", 0d);
+        pressure.put("H2", 0d);
+        return pressure;
+    }
+
+    /**
+     * @param alCl3 Pg(AlCl3), Pg(GaCl) is 30 - alCl3
+     * @return Pg of task 3 with pure N2
+     */
+    static Map<String, Double> nitridePressure(double alCl3) {
+        Map<String, Double> pressure = chloridePressure();
+        pressure.put("NH3", 1500d);
+        pressure.put("HCl", 0d);
+        pressure.put("N2", 98470d);
+        pressure.put("AlCl3", alCl3);
+        pressure.put("GaCl", 30 - alCl3);
+        return pressure;
+    }
+
+    /**
+     * @return temperatures of task 1
+     */
+    static double[] task1Temperatures() {
+        double[] temperatures = new double[65 - 35 + 1];
+        for (int i = 35; i <= 65; i++) {
+            temperatures[i - 35] = 10 * i + 273;
+        }
+        return temperatures;
+    }
+}
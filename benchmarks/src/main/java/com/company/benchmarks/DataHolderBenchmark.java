@@ -0,0 +1,71 @@
+package com.company.benchmarks;
+
+import com.company.DataHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thermodynamic lookups at a fixed temperature, served by the cache, and at a new temperature
+ * every call, which computes G, K and D from the data file coefficients
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataHolderBenchmark {
+
+    @Param({"AlCl", "GaCl3", "NH3"})
+    public String chemicalAgent;
+
+    private double T;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.useDataFile();
+        T = 1100 + 273;
+    }
+
+    /**
+     * @return next temperature, never repeated within the cache capacity
+     */
+    private double nextT() {
+        T += 1e-3;
+        if (T > 1500) {
+            T = 600;
+        }
+        return T;
+    }
+
+    @Benchmark
+    public double getGCached() {
+        return DataHolder.getG(chemicalAgent, 1100 + 273);
+    }
+
+    @Benchmark
+    public double getG() {
+        return DataHolder.getG(chemicalAgent, nextT());
+    }
+
+    @Benchmark
+    public double[] getKCached() {
+        return DataHolder.getK(1100 + 273);
+    }
+
+    @Benchmark
+    public double[] getK() {
+        return DataHolder.getK(nextT());
+    }
+
+    @Benchmark
+    public double getDCached() {
+        return DataHolder.getD(chemicalAgent, 1100 + 273);
+    }
+
+    @Benchmark
+    public double getD() {
+        return DataHolder.getD(chemicalAgent, nextT());
+    }
+}
@@ -0,0 +1,116 @@
+package com.company.benchmarks;
+
+import com.company.ColoredJacobian;
+import com.company.DataHolder;
+import com.company.Function;
+import com.company.Main;
+import com.company.ReactorModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradients of the AlGaN equations: analytic derivatives of the reactor model against forward
+ * differences of the same functions, each through the allocating and the allocation-free call,
+ * and whole difference Jacobians row by row against {@link ColoredJacobian}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionBenchmark {
+
+    private Function[] analytic;
+    private Function[] differences;
+    private double[] x;
+    private double[] gradient;
+    private double[][] jacobian;
+    private ColoredJacobian colored;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.useDataFile();
+        ReactorModel model = Main.getAlGaNModel();
+        double T = 1100 + 273;
+        double[] p = new double[model.gasCount()];
+        double[] d = new double[model.gasCount()];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = BenchmarkData.nitridePressure(15).get(model.getGas(i));
+            d[i] = DataHolder.getD(model.getGas(i), T);
+        }
+        analytic = model.functions(T, p, d);
+        differences = new Function[analytic.length];
+        for (int i = 0; i < analytic.length; i++) {
+            final Function f = analytic[i];
+            differences[i] = new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return f.calculate(x);
+                }
+
+                @Override
+                public int[] dependencies() {
+                    return f.dependencies();
+                }
+            };
+        }
+        x = new double[] {10, 5, 1400, 3, 10, 0.5};
+        gradient = new double[x.length];
+        jacobian = new double[analytic.length][x.length];
+        colored = new ColoredJacobian(differences, x.length, false);
+    }
+
+    @Benchmark
+    public double analytic() {
+        double sum = 0;
+        for (Function f : analytic) {
+            f.totalDerivative(x, gradient);
+            sum += gradient[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double analyticAllocating() {
+        double sum = 0;
+        for (Function f : analytic) {
+            sum += f.totalDerivative(x)[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double forwardDifferences() {
+        double sum = 0;
+        for (Function f : differences) {
+            f.totalDerivative(x, gradient);
+            sum += gradient[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double forwardDifferencesAllocating() {
+        double sum = 0;
+        for (Function f : differences) {
+            sum += f.totalDerivative(x)[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[][] differenceJacobian() {
+        for (int i = 0; i < differences.length; i++) {
+            differences[i].totalDerivative(x, jacobian[i]);
+        }
+        return jacobian;
+    }
+
+    @Benchmark
+    public double[][] coloredJacobian() {
+        colored.evaluate(x, jacobian);
+        return jacobian;
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.benchmarks;
+
+import com.company.KrylovSolver;
+import com.company.LUDecomposition;
+import com.company.Matrix;
+import com.company.RandomHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dense linear solvers on random diagonally dominant systems, so that the Jacobi and Seidel
+ * iterations converge and all methods solve the same problem
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+
+    @Param({"5", "10", "20", "50", "100", "200", "500"})
+    public int n;
+
+    private Matrix matrix;
+    private double[] b;
+    private double[] solution;
+    private LUDecomposition lu;
+    private KrylovSolver bicgstab;
+
+    @Setup
+    public void setUp() {
+        RandomHolder.setSeed(42);
+        RandomHolder.reseed(0);
+        matrix = new Matrix(n);
+        b = new double[n];
+        solution = new double[n];
+        matrix.diagonalDominanceFill(b, -10, 10, 2);
+        lu = new LUDecomposition(n);
+        bicgstab = new KrylovSolver(n, KrylovSolver.Method.BICGSTAB);
+        bicgstab.setPreconditioner(KrylovSolver.jacobi(matrix, KrylovSolver.Method.BICGSTAB));
+    }
+
+    @Benchmark
+    public double[] gaussMethod() {
+        return matrix.gaussMethod(b);
+    }
+
+    @Benchmark
+    public double[] luSolve() {
+        lu.factor(matrix);
+        lu.solve(b, solution);
+        return solution;
+    }
+
+    @Benchmark
+    public double[] conjugateGradientsMethod() {
+        return matrix.conjugateGradientsMethod(b, 1e-10, 100000);
+    }
+
+    @Benchmark
+    public double[] bicgstab() {
+        Arrays.fill(solution, 0);
+        bicgstab.solve(matrix, b, solution);
+        return solution;
+    }
+
+    @Benchmark
+    public double[] transform() {
+        return matrix.transform(b);
+    }
+
+    @Benchmark
+    public double[] transposeTransform() {
+        return matrix.transposeTransform(b);
+    }
+
+    @Benchmark
+    public double[] jacobiMethod() throws Exception {
+        return matrix.jacobiMethod(b, 100000, 1e-10, false, 1, false);
+    }
+
+    @Benchmark
+    public double[] seidelMethod() throws Exception {
+        return matrix.jacobiMethod(b, 100000, 1e-10, true, 1, false);
+    }
+}
@@ -0,0 +1,94 @@
+package com.company.benchmarks;
+
+import com.company.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One point of each task: Newton iterations of {@link EquationSystem#universalMethod} from the solution
+ * 10 K away, as in a warm started sweep, with dense and sparse Jacobians, and the whole cold solve of Main with its random starts
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    @Param({"AlClx", "GaClx", "AlGaN"})
+    public String system;
+
+    private Map<String, Double> pressure;
+    private double T;
+    private EquationSystem equationSystem;
+    private EquationSystem sparseSystem;
+    private double[] initial;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.useDataFile();
+        RandomHolder.setSeed(42);
+        ReactorModel model;
+        if ("AlClx".equals(system)) {
+            model = Main.getChlorideModel("Al");
+            pressure = BenchmarkData.chloridePressure();
+            T = 500 + 273;
+        } else if ("GaClx".equals(system)) {
+            model = Main.getChlorideModel("Ga");
+            pressure = BenchmarkData.chloridePressure();
+            T = 800 + 273;
+        } else {
+            model = Main.getAlGaNModel();
+            pressure = BenchmarkData.nitridePressure(15);
+            T = 1100 + 273;
+        }
+        double[] p = new double[model.gasCount()];
+        double[] d = new double[model.gasCount()];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = pressure.get(model.getGas(i));
+            d[i] = DataHolder.getD(model.getGas(i), T);
+        }
+        Function[] functions = model.functions(T, p, d);
+        equationSystem = new EquationSystem(functions, new SolverWorkspace(functions.length));
+        double[] lower = new double[functions.length];
+        double[] upper = new double[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+            lower[i] = model.isGas(i) ? -Main.ALLOWED_DISCREPANCY : 0;
+            upper[i] = model.isGas(i) ? DataHolder.ATMOSPHERIC_PRESSURE + Main.ALLOWED_DISCREPANCY : 1;
+        }
+        equationSystem.setBounds(lower, upper);
+        sparseSystem = equationSystem.copy(new SolverWorkspace(functions.length));
+        sparseSystem.setSparse(true);
+        RandomHolder.reseed(0);
+        initial = solve(T - 10).getSolution();
+    }
+
+    private PointResult solve(double T) {
+        if ("AlClx".equals(system)) {
+            return Main.solveAlClx(pressure, T, 0.01);
+        } else if ("GaClx".equals(system)) {
+            return Main.solveGaClx(pressure, T, 0.01);
+        }
+        return Main.solveAlGaN(pressure, T, 0.01);
+    }
+
+    @Benchmark
+    public double[] newton() {
+        return equationSystem.universalMethod(1e-12, 1000000, initial);
+    }
+
+    @Benchmark
+    public double[] newtonSparse() {
+        return sparseSystem.universalMethod(1e-12, 1000000, initial);
+    }
+
+    @Benchmark
+    public PointResult multiStart() {
+        /** the same random starts every call **/
+        RandomHolder.reseed(0);
+        return solve(T);
+    }
+}
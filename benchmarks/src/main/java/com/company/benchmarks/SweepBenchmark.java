@@ -0,0 +1,60 @@
+package com.company.benchmarks;
+
+import com.company.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 31 temperatures of task 1: the lockstep batch solve used by Main, and the point by point
+ * sweep of {@link SweepEngine} with warm starts
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SweepBenchmark {
+
+    private Map<String, Double> pressure;
+    private double[] temperatures;
+    private List<SweepPoint> grid;
+    private SweepEngine engine;
+    private SweepEngine.PointSolver solver;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.useDataFile();
+        RandomHolder.setSeed(42);
+        pressure = BenchmarkData.chloridePressure();
+        temperatures = BenchmarkData.task1Temperatures();
+        grid = new ArrayList<SweepPoint>();
+        for (double T : temperatures) {
+            grid.add(new SweepPoint(T, pressure, 0.01));
+        }
+        engine = new SweepEngine();
+        engine.setContinuation(true, true);
+        solver = new SweepEngine.PointSolver() {
+            @Override
+            public PointResult solve(SweepPoint point, double[] initial) {
+                return Main.solveAlClx(point.getPressure(), point.getT(), point.getDelta(), initial);
+            }
+        };
+    }
+
+    @Benchmark
+    public List<PointResult> task1Batch() {
+        RandomHolder.reseed(0);
+        return Main.solveAlClx(pressure, temperatures, 0.01);
+    }
+
+    @Benchmark
+    public List<PointResult> task1Sweep() throws IOException {
+        return engine.run(grid, solver, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.company;
+
+/**
+ * Backtracking from t = 1 until the Armijo condition
+ * discrepancy(x + t * d) <= f0 + c * t * slope holds.
+ * Backtracking either halves t or takes the minimum of a quadratic (first step)
+ * or cubic (later steps) interpolation of the discrepancy, kept within [0.1 t, 0.5 t].
+ * Without a known slope the derivative-free test discrepancy(x + t * d) <= (1 - c * t) * f0
+ * is used instead and t is halved.
+ */
+public class ArmijoLineSearch implements LineSearch {
+
+    private final double c;
+    private final double minStep;
+    private final boolean interpolate;
+
+    /**
+     * Armijo search with c = 1e-4, minimal step 1e-12 and cubic interpolation
+     */
+    public ArmijoLineSearch() {
+        this(1e-4, 1e-12, true);
+    }
+
+    /**
+     * @param c sufficient decrease constant in (0, 1)
+     * @param minStep search gives up and returns 0 when t falls below minStep
+     * @param interpolate use quadratic/cubic interpolation instead of halving
+     */
+    public ArmijoLineSearch(double c, double minStep, boolean interpolate) {
+        if (c <= 0 || c >= 1) {
+            throw new IllegalArgumentException("Armijo constant must be in (0, 1): " + c);
+        }
+        this.c = c;
+        this.minStep = minStep;
+        this.interpolate = interpolate;
+    }
+
+    @Override
+    public double search(EquationSystem system, double[] x, double[] d, double f0, double slope) {
+        boolean known = !Double.isNaN(slope);
+        if (!known) {
+            /** f0 + c * t * slope is then the required decrease (1 - c * t) * f0 **/
+            slope = -f0;
+        }
+        if (!(slope < 0)) {
+            return 0;
+        }
+        double t = 1, f = system.discrepancy(x, d, t);
+        double previousT = 0, previousF = f0;
+        while (!(f <= f0 + c * t * slope)) {
+            double next;
+            if (!interpolate || !known || Double.isInfinite(f) || Double.isNaN(f)) {
+                next = t / 2;
+            } else if (previousT == 0) {
+                /** minimum of quadratic through f0, slope and f(t) **/
+                next = -slope * t * t / (2 * (f - f0 - slope * t));
+            } else {
+                /** minimum of cubic through f0, slope, f(t) and f(previousT) **/
+                double r1 = (f - f0 - slope * t) / (t * t);
+                double r2 = (previousF - f0 - slope * previousT) / (previousT * previousT);
+                double a = (r1 - r2) / (t - previousT);
+                double b = (-previousT * r1 + t * r2) / (t - previousT);
+                if (a == 0) {
+                    next = -slope / (2 * b);
+                } else {
+                    double discriminant = b * b - 3 * a * slope;
+                    next = discriminant < 0 ? t / 2 : (-b + Math.sqrt(discriminant)) / (3 * a);
+                }
+            }
+            if (!(next >= 0.1 * t)) {
+                next = 0.1 * t;
+            } else if (next > 0.5 * t) {
+                next = 0.5 * t;
+            }
+            previousT = t;
+            previousF = f;
+            t = next;
+            if (t < minStep) {
+                return 0;
+            }
+            f = system.discrepancy(x, d, t);
+        }
+        return t;
+    }
+}
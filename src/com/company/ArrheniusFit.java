@@ -0,0 +1,90 @@
+package com.company;
+
+/**
+ * Least-squares line ln|value| = intercept + slope / T for several values, updated with every result,
+ * so activation energies Ea = -slope * R are known without keeping or re-reading the sweep.
+ */
+public class ArrheniusFit implements ResultSink {
+
+    private final String temperature;
+    private final String[] names;
+    private int[] columns = null;
+    private long count = 0;
+    /** Running means of x = 1 / T and y = ln|value|, and sums of squared and crossed deviations **/
+    private double meanX = 0;
+    private double sumXX = 0;
+    private final double[] meanY;
+    private final double[] sumXY;
+
+    /**
+     * @param temperature name of the temperature value
+     * @param names fitted values
+     */
+    public ArrheniusFit(String temperature, String... names) {
+        this.temperature = temperature;
+        this.names = names.clone();
+        meanY = new double[names.length];
+        sumXY = new double[names.length];
+    }
+
+    /**
+     * Welford update, stable for many points with close 1 / T
+     */
+    @Override
+    public void accept(PointResult result) {
+        if (columns == null) {
+            columns = new int[names.length + 1];
+            columns[0] = PlotSink.column(result, temperature);
+            for (int i = 0; i < names.length; i++) {
+                columns[i + 1] = PlotSink.column(result, names[i]);
+            }
+        }
+        count++;
+        double x = 1 / result.getValue(columns[0]);
+        double dx = x - meanX;
+        meanX += dx / count;
+        sumXX += dx * (x - meanX);
+        for (int i = 0; i < names.length; i++) {
+            double y = Math.log(Math.abs(result.getValue(columns[i + 1])));
+            meanY[i] += (y - meanY[i]) / count;
+            sumXY[i] += dx * (y - meanY[i]);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param name fitted value
+     * @return slope of ln|value| by 1 / T, NaN for less than two distinct temperatures
+     */
+    public double getSlope(String name) {
+        return sumXY[index(name)] / sumXX;
+    }
+
+    public double getIntercept(String name) {
+        return meanY[index(name)] - getSlope(name) * meanX;
+    }
+
+    /**
+     * @param name fitted value
+     * @return Ea = -slope * R, J/mol
+     */
+    public double getActivationEnergy(String name) {
+        return -getSlope(name) * DataHolder.R;
+    }
+
+    private int index(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Value " + name + " is not fitted");
+    }
+}
@@ -0,0 +1,223 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Newton iterations for all points of a {@link BatchSystem} in lockstep: every iteration evaluates
+ * residuals and Jacobians of all points with one call, then solves the small linear system of each
+ * active point. Steps are chosen by backtracking until the Armijo condition holds for every point,
+ * and points stop one by one under the same rules as {@link EquationSystem#universalMethod}.
+ */
+public class BatchNewtonSolver {
+
+    private final static double ARMIJO = 1e-4;
+    private final static double MIN_STEP = 1e-12;
+
+    private final BatchSystem system;
+    private final int n;
+    private final int points;
+    private double[] lower = null;
+    private double[] upper = null;
+
+    private final double[][] f;
+    private final double[][] jacobian;
+    private final double[][] dx;
+    private final double[][] trial;
+    private final double[] discrepancy;
+    private final double[] t;
+    private final boolean[] active;
+    private final boolean[] pending;
+    private final double[][] rows;
+    private final double[] b;
+    private final double[] solution;
+    private final LUDecomposition lu;
+    private long iterations = 0;
+
+    public BatchNewtonSolver(BatchSystem system) {
+        this.system = system;
+        n = system.size();
+        points = system.points();
+        f = new double[n][points];
+        jacobian = new double[n * n][points];
+        dx = new double[n][points];
+        trial = new double[n][points];
+        discrepancy = new double[points];
+        t = new double[points];
+        active = new boolean[points];
+        pending = new boolean[points];
+        rows = new double[n][n];
+        b = new double[n];
+        solution = new double[n];
+        lu = new LUDecomposition(n);
+    }
+
+    /**
+     * Same box for every point, see {@link EquationSystem#setBounds}
+     * @param lower lower bounds of variables
+     * @param upper upper bounds of variables
+     */
+    public void setBounds(double[] lower, double[] upper) {
+        if (lower.length != n || upper.length != n) {
+            throw new IllegalArgumentException("Bounds must have " + n + " elements");
+        }
+        for (int i = 0; i < n; i++) {
+            if (lower[i] > upper[i]) {
+                throw new IllegalArgumentException("Empty bounds for x[" + i + "]");
+            }
+        }
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+    }
+
+    /**
+     * @param x initial arguments x[i][p], replaced by the answers
+     * @param eps precision of finding x
+     * @param maxIterations maximum lockstep iterations count
+     * @return lockstep iterations made
+     */
+    public long solve(double[][] x, double eps, long maxIterations) {
+        Arrays.fill(active, true);
+        for (int i = 0; i < n; i++) {
+            project(x[i], i);
+        }
+        iterations = 0;
+        int left = points;
+        while (left > 0 && iterations < maxIterations) {
+            iterations++;
+            residual(x, discrepancy);
+            for (double[] column : jacobian) {
+                Arrays.fill(column, 0);
+            }
+            system.jacobian(x, jacobian);
+            for (int p = 0; p < points; p++) {
+                if (active[p] && !direction(p)) {
+                    active[p] = false;
+                    left--;
+                }
+            }
+            search(x);
+            for (int p = 0; p < points; p++) {
+                if (!active[p]) {
+                    continue;
+                }
+                boolean moved = false;
+                double norm = 0;
+                for (int i = 0; i < n; i++) {
+                    moved |= trial[i][p] != x[i][p];
+                    x[i][p] = trial[i][p];
+                    norm = Math.max(norm, Math.abs(dx[i][p]));
+                }
+                /** the Jacobian is always fresh, so a point that did not move never will **/
+                if (norm < eps || !moved) {
+                    active[p] = false;
+                    left--;
+                }
+            }
+        }
+        residual(x, discrepancy);
+        return iterations;
+    }
+
+    /**
+     * @param p point
+     * @return sum of squared residuals at point p after {@link #solve}
+     */
+    public double getDiscrepancy(int p) {
+        return discrepancy[p];
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Solves J dx = -F at point p
+     * @return false if the Jacobian is singular
+     */
+    private boolean direction(int p) {
+        for (int e = 0; e < n; e++) {
+            b[e] = -f[e][p];
+            for (int i = 0; i < n; i++) {
+                rows[e][i] = jacobian[e * n + i][p];
+            }
+        }
+        lu.factor(rows);
+        if (lu.isSingular()) {
+            return false;
+        }
+        lu.solve(b, solution);
+        for (int i = 0; i < n; i++) {
+            dx[i][p] = solution[i];
+        }
+        return true;
+    }
+
+    /**
+     * Backtracks t for all active points together until each satisfies the Armijo condition,
+     * leaving the accepted projected points in trial
+     */
+    private void search(double[][] x) {
+        int left = 0;
+        for (int p = 0; p < points; p++) {
+            pending[p] = active[p];
+            t[p] = active[p] ? 1 : 0;
+            if (active[p]) {
+                left++;
+            }
+        }
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                double[] xi = x[i], dxi = dx[i], trialI = trial[i];
+                for (int p = 0; p < points; p++) {
+                    trialI[p] = xi[p] + t[p] * dxi[p];
+                }
+                project(trialI, i);
+            }
+            if (left == 0) {
+                return;
+            }
+            system.residual(trial, f);
+            left = 0;
+            for (int p = 0; p < points; p++) {
+                if (!pending[p]) {
+                    continue;
+                }
+                double value = 0;
+                for (int e = 0; e < n; e++) {
+                    value += f[e][p] * f[e][p];
+                }
+                /** slope of |F(x + t dx)|^2 at 0 is -2|F|^2 for the Newton direction **/
+                if (value <= discrepancy[p] - ARMIJO * t[p] * 2 * discrepancy[p]) {
+                    pending[p] = false;
+                } else if (t[p] / 2 < MIN_STEP) {
+                    pending[p] = false;
+                    t[p] = 0;
+                } else {
+                    t[p] /= 2;
+                    left++;
+                }
+            }
+        }
+    }
+
+    private void residual(double[][] x, double[] discrepancy) {
+        system.residual(x, f);
+        Arrays.fill(discrepancy, 0);
+        for (int e = 0; e < n; e++) {
+            double[] fe = f[e];
+            for (int p = 0; p < points; p++) {
+                discrepancy[p] += fe[p] * fe[p];
+            }
+        }
+    }
+
+    private void project(double[] xi, int i) {
+        if (lower == null) {
+            return;
+        }
+        double l = lower[i], u = upper[i];
+        for (int p = 0; p < points; p++) {
+            xi[p] = Math.max(l, Math.min(u, xi[p]));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.company;
+
+/**
+ * The same equation system at many points, e.g. temperatures, evaluated together.
+ * Arguments and values are stored as structure of arrays: x[i][p] is variable i at point p,
+ * so every loop over points runs over contiguous arrays and can be vectorised by the JIT.
+ */
+public interface BatchSystem {
+
+    /**
+     * @return equation and variable count
+     */
+    int size();
+
+    /**
+     * @return point count
+     */
+    int points();
+
+    /**
+     * @param x x[i][p] is variable i at point p
+     * @param f to be filled with f[e][p], value of equation e at point p
+     */
+    void residual(double[][] x, double[][] f);
+
+    /**
+     * @param x x[i][p] is variable i at point p
+     * @param j to be filled with j[e * size() + i][p], derivative of equation e by variable i at point p;
+     *          all zero before the call, so only nonzero entries have to be written
+     */
+    void jacobian(double[][] x, double[][] j);
+}
@@ -0,0 +1,55 @@
+package com.company;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes results as fixed-width records of big-endian doubles, read back by {@link ResultFileReader#readBinary}.
+ * File layout: int {@link #MAGIC}, int column count, column names in modified UTF-8,
+ * then one record of column count doubles per result.
+ */
+public class BinaryResultSink implements ResultSink {
+
+    public final static int MAGIC = 0x414c5231;
+
+    private final DataOutputStream out;
+    private String[] columns = null;
+
+    public BinaryResultSink(String fileName) throws IOException {
+        this(new FileOutputStream(fileName));
+    }
+
+    /**
+     * @param out output, buffered and closed by the sink
+     */
+    public BinaryResultSink(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    @Override
+    public void accept(PointResult result) throws IOException {
+        if (columns == null) {
+            columns = result.getNames();
+            out.writeInt(MAGIC);
+            out.writeInt(columns.length);
+            for (String column : columns) {
+                out.writeUTF(column);
+            }
+        }
+        if (!result.hasNames(columns)) {
+            throw new IllegalArgumentException("Result values differ from columns " + Arrays.toString(columns));
+        }
+        for (int i = 0; i < columns.length; i++) {
+            out.writeDouble(result.getValue(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
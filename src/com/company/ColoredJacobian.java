@@ -0,0 +1,230 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Forward difference Jacobian with Curtis-Powell-Reid column colouring: columns that no function
+ * depends on together get the same colour and are perturbed at once, so a Jacobian costs about
+ * m * (colours + 1) calls of calculate instead of m * (n + 1). Differences are the same as those of
+ * {@link Function#totalDerivative}. Functions with analytic derivatives are evaluated by them.
+ * <p>
+ * Dependencies come from {@link Function#dependencies()}. Functions that declare none are taken to
+ * depend on every variable or, if detection is on, are probed once near the first argument: a variable
+ * whose change does not change the value is assumed never to matter.
+ * Dependencies and colours are found by the first {@link #evaluate} and kept for later calls.
+ */
+public class ColoredJacobian {
+
+    /** Size of the probe point offsets and steps relative to 1 + |x[j]| **/
+    private final static double PROBE = 1e-3;
+
+    private final Function[] functions;
+    private final int n;
+    private final boolean detect;
+
+    private boolean[] analytic = null;
+    /** Columns of each colour **/
+    private int[][] colorColumns;
+    /** Finite difference rows depending on a column of each colour, and that column **/
+    private int[][] colorRows;
+    private int[][] colorRowColumns;
+    private final double[] base;
+    private final double[] saved;
+    private long evaluations = 0;
+
+    /**
+     * @param functions functions of n variables, rows of the Jacobian
+     * @param n number of variables
+     * @param detect probe functions that declare no dependencies
+     */
+    public ColoredJacobian(Function[] functions, int n, boolean detect) {
+        this.functions = functions;
+        this.n = n;
+        this.detect = detect;
+        base = new double[functions.length];
+        saved = new double[n];
+    }
+
+    /**
+     * @return number of colours, n when nothing is known about dependencies; -1 before the first {@link #evaluate}
+     */
+    public int getColors() {
+        return colorColumns == null ? -1 : colorColumns.length;
+    }
+
+    /**
+     * @return calls of calculate made so far, including dependency detection
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @param x argument, perturbed during the call and restored before return
+     * @param jacobian rows to be filled with df[i]/dx[j]
+     */
+    public void evaluate(double[] x, double[][] jacobian) {
+        if (analytic == null) {
+            prepare(x, jacobian);
+        }
+        for (int i = 0; i < functions.length; i++) {
+            if (analytic[i]) {
+                functions[i].derivative(x, jacobian[i]);
+            } else {
+                Arrays.fill(jacobian[i], 0);
+                base[i] = functions[i].calculate(x);
+                evaluations++;
+            }
+        }
+        for (int c = 0; c < colorColumns.length; c++) {
+            int[] columns = colorColumns[c];
+            for (int j : columns) {
+                saved[j] = x[j];
+                x[j] += Function.EPS;
+            }
+            int[] rows = colorRows[c];
+            int[] rowColumns = colorRowColumns[c];
+            for (int k = 0; k < rows.length; k++) {
+                int i = rows[k];
+                jacobian[i][rowColumns[k]] = (functions[i].calculate(x) - base[i]) / Function.EPS;
+                evaluations++;
+            }
+            for (int j : columns) {
+                x[j] = saved[j];
+            }
+        }
+    }
+
+    /**
+     * Finds which functions need differences and what they depend on, then colours the columns
+     * greedily, most constrained first
+     */
+    private void prepare(double[] x, double[][] jacobian) {
+        int m = functions.length;
+        analytic = new boolean[m];
+        int[][] dependencies = new int[m][];
+        List<List<Integer>> columnRows = new ArrayList<List<Integer>>();
+        for (int j = 0; j < n; j++) {
+            columnRows.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < m; i++) {
+            analytic[i] = functions[i].derivative(x, jacobian[i]);
+            if (analytic[i]) {
+                continue;
+            }
+            dependencies[i] = functions[i].dependencies();
+            if (dependencies[i] == null) {
+                dependencies[i] = detect ? detect(functions[i], x) : all();
+            }
+            for (int j : dependencies[i]) {
+                columnRows.get(j).add(i);
+            }
+        }
+        final int[] degree = new int[n];
+        List<Integer> order = new ArrayList<Integer>();
+        for (int j = 0; j < n; j++) {
+            for (int i : columnRows.get(j)) {
+                degree[j] += dependencies[i].length - 1;
+            }
+            if (!columnRows.get(j).isEmpty()) {
+                order.add(j);
+            }
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return degree[b] != degree[a] ? degree[b] - degree[a] : a - b;
+            }
+        });
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        /** forbidden[c] == j + 1 if colour c is taken by a neighbour of column j **/
+        int[] forbidden = new int[n];
+        int colors = 0;
+        for (int j : order) {
+            for (int i : columnRows.get(j)) {
+                for (int k : dependencies[i]) {
+                    if (color[k] >= 0) {
+                        forbidden[color[k]] = j + 1;
+                    }
+                }
+            }
+            int c = 0;
+            while (forbidden[c] == j + 1) {
+                c++;
+            }
+            color[j] = c;
+            colors = Math.max(colors, c + 1);
+        }
+        List<List<Integer>> columns = new ArrayList<List<Integer>>();
+        List<List<int[]>> entries = new ArrayList<List<int[]>>();
+        for (int c = 0; c < colors; c++) {
+            columns.add(new ArrayList<Integer>());
+            entries.add(new ArrayList<int[]>());
+        }
+        for (int j = 0; j < n; j++) {
+            if (color[j] >= 0) {
+                columns.get(color[j]).add(j);
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            if (!analytic[i]) {
+                for (int j : dependencies[i]) {
+                    entries.get(color[j]).add(new int[] {i, j});
+                }
+            }
+        }
+        colorColumns = new int[colors][];
+        colorRows = new int[colors][];
+        colorRowColumns = new int[colors][];
+        for (int c = 0; c < colors; c++) {
+            colorColumns[c] = new int[columns.get(c).size()];
+            for (int k = 0; k < colorColumns[c].length; k++) {
+                colorColumns[c][k] = columns.get(c).get(k);
+            }
+            colorRows[c] = new int[entries.get(c).size()];
+            colorRowColumns[c] = new int[entries.get(c).size()];
+            for (int k = 0; k < colorRows[c].length; k++) {
+                colorRows[c][k] = entries.get(c).get(k)[0];
+                colorRowColumns[c][k] = entries.get(c).get(k)[1];
+            }
+        }
+    }
+
+    private int[] all() {
+        int[] all = new int[n];
+        for (int j = 0; j < n; j++) {
+            all[j] = j;
+        }
+        return all;
+    }
+
+    /**
+     * Probes f at a point shifted off x by uneven offsets, so that a derivative vanishing exactly at x
+     * is not taken for independence
+     */
+    private int[] detect(Function f, double[] x) {
+        double[] z = new double[n];
+        for (int j = 0; j < n; j++) {
+            z[j] = x[j] + PROBE * (j + 1) / (n + 1) * (1 + Math.abs(x[j]));
+        }
+        double value = f.calculate(z);
+        evaluations++;
+        int count = 0;
+        int[] found = new int[n];
+        for (int j = 0; j < n; j++) {
+            double zj = z[j];
+            z[j] = zj + PROBE * (1 + Math.abs(zj));
+            if (f.calculate(z) != value) {
+                found[count++] = j;
+            }
+            evaluations++;
+            z[j] = zj;
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
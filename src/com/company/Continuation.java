@@ -0,0 +1,53 @@
+package com.company;
+
+/**
+ * Predicts initial arguments along a sweep from the solutions at previous sweep points.
+ * Not thread-safe: each sequentially solved run of points needs its own instance.
+ */
+public class Continuation {
+
+    private final boolean extrapolate;
+    private double[] last, previous;
+    private double lastS, previousS;
+
+    /**
+     * @param extrapolate extrapolate linearly from the two previous points instead of reusing the last solution
+     */
+    public Continuation(boolean extrapolate) {
+        this.extrapolate = extrapolate;
+    }
+
+    /**
+     * @param s sweep parameter of the next point
+     * @return initial argument for the next point or null if nothing is known yet
+     */
+    public double[] predict(double s) {
+        if (last == null) {
+            return null;
+        }
+        double[] x = last.clone();
+        if (extrapolate && previous != null && lastS != previousS) {
+            double k = (s - lastS) / (lastS - previousS);
+            for (int i = 0; i < x.length; i++) {
+                x[i] += k * (last[i] - previous[i]);
+            }
+        }
+        return x;
+    }
+
+    /**
+     * @param s sweep parameter of the solved point
+     * @param x solution
+     */
+    public void accept(double s, double[] x) {
+        previous = last;
+        previousS = lastS;
+        last = x.clone();
+        lastS = s;
+    }
+
+    public void reset() {
+        last = null;
+        previous = null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes one comma-separated row per result, with a header of value names taken from the first result.
+ */
+public class CsvResultSink implements ResultSink {
+
+    private final BufferedWriter out;
+    private String[] columns = null;
+
+    public CsvResultSink(String fileName) throws IOException {
+        this(new FileWriter(fileName));
+    }
+
+    /**
+     * @param out output, buffered and closed by the sink
+     */
+    public CsvResultSink(Writer out) {
+        this.out = new BufferedWriter(out);
+    }
+
+    @Override
+    public void accept(PointResult result) throws IOException {
+        if (columns == null) {
+            columns = result.getNames();
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(columns[i]);
+            }
+            out.newLine();
+        }
+        if (!result.hasNames(columns)) {
+            throw new IllegalArgumentException("Result values differ from columns " + Arrays.toString(columns));
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(Double.toString(result.getValue(i)));
+        }
+        out.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
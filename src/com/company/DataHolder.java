@@ -8,28 +8,85 @@ import java.util.*;
 public class DataHolder {
     public final static double ATMOSPHERIC_PRESSURE = 100000;
     public final static double R = 8.314;
-    private final static Map<String, Map<String, String>> data = new HashMap<String, Map<String, String>>();
-    private static boolean hasData = false;
-
-    private static void readData() throws IOException {
-        BufferedReader in = new BufferedReader(new FileReader("Bank_TD_Fragment.dat"));
-        for (int i = 0; i < 6; i++) in.readLine();
-        StringTokenizer tokens = new StringTokenizer(in.readLine());
-        List<String> parameters = new ArrayList<String>();
-        tokens.nextToken();
-        while (tokens.hasMoreTokens()) {
-            String parameter = tokens.nextToken().toUpperCase();
-            parameters.add(parameter);
-            data.put(parameter, new HashMap<String, String>());
+    /** Reaction number i is REACTIONS[i - 1] */
+    public final static String[] REACTIONS = new String[] {
+        "2 HCl + 2 Al = 2 AlCl + H2",
+        "2 HCl + Al = AlCl2 + H2",
+        "6 HCl + 2 Al = 2 AlCl3 + 3 H2",
+        "2 HCl + 2 Ga = 2 GaCl + H2",
+        "2 HCl + Ga = GaCl2 + H2",
+        "6 HCl + 2 Ga = 2 GaCl3 + 3 H2",
+        "AlCl + NH3 = AlN + HCl + H2",
+        "2 AlCl2 + 2 NH3 = 2 AlN + 4 HCl + H2",
+        "AlCl3 + NH3 = AlN + 3 HCl",
+        "GaCl + NH3 = GaN + HCl + H2",
+        "2 GaCl2 + 2 NH3 = 2 GaN + 4 HCl + H2",
+        "GaCl3 + NH3 = GaN + 3 HCl"
+    };
+    private final static int CACHE_CAPACITY = 4096;
+
+    /**
+     * Immutable result of reading the data file
+     */
+    private static class Snapshot {
+        final Map<String, Map<String, String>> data;
+        final SpeciesTable table;
+        final ReactionNetwork reactions;
+        final ThermoCache cache;
+
+        Snapshot(Map<String, Map<String, String>> data, String[] chemicalAgents) {
+            this.data = Collections.unmodifiableMap(data);
+            table = new SpeciesTable(data, chemicalAgents);
+            reactions = new ReactionNetwork(table, REACTIONS);
+            cache = new ThermoCache(table, reactions, CACHE_CAPACITY);
         }
-        in.readLine();
-        tokens = new StringTokenizer(in.readLine());
-        while (tokens.hasMoreTokens()) {
-            String chemicalAgent = tokens.nextToken().toUpperCase();
-            for (String parameter : parameters) {
-                data.get(parameter).put(chemicalAgent, tokens.nextToken());
+    }
+
+    private static String dataFile = System.getProperty("algan.data", "Bank_TD_Fragment.dat");
+    private static volatile Snapshot snapshot;
+
+    /**
+     * Sets data file path, "Bank_TD_Fragment.dat" or system property algan.data by default.
+     * Data already loaded from another file is dropped and read again on next access.
+     * @param fileName data file path
+     */
+    public static synchronized void setDataFile(String fileName) {
+        if (!fileName.equals(dataFile)) {
+            dataFile = fileName;
+            snapshot = null;
+        }
+    }
+
+    public static synchronized String getDataFile() {
+        return dataFile;
+    }
+
+    private static Snapshot readData(String fileName) throws IOException {
+        Map<String, Map<String, String>> data = new HashMap<String, Map<String, String>>();
+        List<String> chemicalAgents = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new FileReader(fileName));
+        try {
+            for (int i = 0; i < 6; i++) in.readLine();
+            StringTokenizer tokens = new StringTokenizer(in.readLine());
+            List<String> parameters = new ArrayList<String>();
+            tokens.nextToken();
+            while (tokens.hasMoreTokens()) {
+                String parameter = tokens.nextToken().toUpperCase();
+                parameters.add(parameter);
+                data.put(parameter, new HashMap<String, String>());
             }
+            in.readLine();
             tokens = new StringTokenizer(in.readLine());
+            while (tokens.hasMoreTokens()) {
+                String chemicalAgent = tokens.nextToken().toUpperCase();
+                chemicalAgents.add(chemicalAgent);
+                for (String parameter : parameters) {
+                    data.get(parameter).put(chemicalAgent, tokens.nextToken());
+                }
+                tokens = new StringTokenizer(in.readLine());
+            }
+        } finally {
+            in.close();
         }
         Map<String, String> densityMap = new HashMap<String, String>();
         densityMap.put("AL", "2690");
@@ -37,82 +94,99 @@ public class DataHolder {
         densityMap.put("ALN", "3200");
         densityMap.put("GAN", "6150");
         data.put("DENSITY", densityMap);
+        for (Map.Entry<String, Map<String, String>> entry : data.entrySet()) {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        return new Snapshot(data, chemicalAgents.toArray(new String[chemicalAgents.size()]));
+    }
 
+    /**
+     * Reads the data file exactly once, even if called from several threads at the same time.
+     * @return loaded data or null if it could not be read
+     */
+    private static Snapshot load() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (DataHolder.class) {
+                s = snapshot;
+                if (s == null) {
+                    try {
+                        s = readData(dataFile);
+                        snapshot = s;
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        return null;
+                    }
+                }
+            }
+        }
+        return s;
     }
 
     public static String getData(String parameter, String chemicalAgent) {
-        if (!hasData) {
-            try {
-                readData();
-                hasData = true;
-            } catch (IOException e) {
-                e.printStackTrace();
-                return null;
-            }
+        Snapshot s = load();
+        if (s == null) {
+            return null;
         }
-        Map<String, String> values = data.get(parameter.toUpperCase());
+        Map<String, String> values = s.data.get(parameter.toUpperCase());
         return values.get(chemicalAgent.toUpperCase());
     }
 
+    /**
+     * @return parsed data, or null if it could not be read
+     */
+    public static SpeciesTable getTable() {
+        Snapshot s = load();
+        return s == null ? null : s.table;
+    }
+
     public static double getDouble(String parameter, String chemicalAgent) {
+        int p = SpeciesTable.parameterIndex(parameter);
+        SpeciesTable table = getTable();
+        if (p >= 0 && table != null) {
+            return table.get(table.indexOf(chemicalAgent), p);
+        }
         return Double.parseDouble(getData(parameter, chemicalAgent));
     }
 
+    /**
+     * @return cache behind {@link #getG}, {@link #getK} and {@link #getD}, or null if data could not be read
+     */
+    public static ThermoCache getCache() {
+        Snapshot s = load();
+        return s == null ? null : s.cache;
+    }
+
     public static double getD(String chemicalAgent, double T) {
-        double sigmaIN2 = (getDouble("sigma", chemicalAgent) + getDouble("sigma", "N2")) / 2;
-        double epsIN2 = Math.sqrt(getDouble("eps", chemicalAgent) * getDouble("eps", "N2"));
-        double omega11 = 1.074 * Math.pow(T / epsIN2, -0.1604);
-        double muIN2 = 2 * getDouble("mu", chemicalAgent) * getDouble("mu", "N2") / (getDouble("mu", chemicalAgent) + getDouble("mu", "N2"));
-        return 0.02628 * Math.pow(T, 1.5) / (ATMOSPHERIC_PRESSURE * sigmaIN2 * omega11 * Math.sqrt(muIN2));
+        Snapshot s = load();
+        return s.cache.getD(s.table.indexOf(chemicalAgent), T);
     }
 
     public static double getG(String chemicalAgent, double T) {
-        double x = T / 10000;
-        return getDouble("H", chemicalAgent) - T * (getDouble("f1", chemicalAgent) + getDouble("f2", chemicalAgent) * Math.log(x)
-            + getDouble("f3", chemicalAgent) / (x * x) + getDouble("f4", chemicalAgent) / x + getDouble("f5", chemicalAgent) * x
-            + getDouble("f6", chemicalAgent) * x * x + getDouble("f7", chemicalAgent) * x * x * x);
+        Snapshot s = load();
+        return s.cache.getG(s.table.indexOf(chemicalAgent), T);
+    }
+
+    /**
+     * @return reactions of {@link #REACTIONS}, or null if data could not be read
+     */
+    public static ReactionNetwork getReactions() {
+        Snapshot s = load();
+        return s == null ? null : s.reactions;
+    }
+
+    /**
+     * @param T temperature
+     * @return equilibrium constants, K of reaction number i is at index i - 1
+     */
+    public static double[] getK(double T) {
+        return getCache().getK(T);
     }
 
     public static double getK(double T, int number) {
-        switch (number) {
-            case 1:
-                //2 HCl + 2 Al = 2 AlCl + H2
-                return Math.exp(-(2 * getG("HCl", T) + 2 * getG("Al", T) - 2 * getG("AlCl", T) - getG("H2", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            case 2:
-                // 2 HCl + Al = AlCl2 + H2
-                return Math.exp(-(2 * getG("HCl", T) + getG("Al", T) - getG("AlCl2", T) - getG("H2", T)) / (R * T));
-            case 3:
-                // 6 HCl + 2 Al = 2 AlCl3 + 3 H2
-                return Math.exp(-(6 * getG("HCl", T) + 2 * getG("Al", T) - 2 * getG("AlCl3", T) - 3 * getG("H2", T)) / (R * T)) * ATMOSPHERIC_PRESSURE;
-            case 4:
-                // 2 HCl + 2 Ga = 2 GaCl + H2
-                return Math.exp(-(2 * getG("HCl", T) + 2 * getG("Ga", T) - 2 * getG("GaCl", T) - getG("H2", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            case 5:
-                // 2 HCl + Ga = GaCl2 + H2
-                return Math.exp(-(2 * getG("HCl", T) + getG("Ga", T) - getG("GaCl2", T) - getG("H2", T)) / (R * T));
-            case 6:
-                //6 HCl + 2 Ga = 2 GaCl3 + 3 H2
-                return Math.exp(-(6 * getG("HCl", T) + 2 * getG("Ga", T) - 2 * getG("GaCl3", T) - 3 * getG("H2", T)) / (R * T)) * ATMOSPHERIC_PRESSURE;
-            case 7:
-                // AlCl + NH3 = AlN + HCl + H2
-                return Math.exp(-(getG("AlCl", T) + getG("NH3", T) - getG("AlN", T) - getG("HCl", T) - getG("H2", T)) / (R * T));
-            case 8:
-                // 2 AlCl2 + 2 NH3 = 2 AlN + 4 HCl + H2
-                return Math.exp(-(2 * getG("AlCl2", T) + 2 * getG("NH3", T) - 2 * getG("AlN", T) - 4 * getG("HCl", T) - getG("H2", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            case 9:
-                // AlCl3 + NH3 = AlN + 3 HCl
-                return Math.exp(-(getG("AlCl3", T) + getG("NH3", T) - getG("AlN", T) - 3 * getG("HCl", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            case 10:
-                // GaCl + NH3 = GaN + HCl + H2
-                return Math.exp(-(getG("GaCl", T) + getG("NH3", T) - getG("GaN", T) - getG("HCl", T) - getG("H2", T)) / (R * T));
-            case 11:
-                // 2 GaCl2 + 2 NH3 = 2 GaN + 4 HCl + H2
-                return Math.exp(-(2 * getG("GaCl2", T) + 2 * getG("NH3", T) - 2 * getG("GaN", T) - 4 * getG("HCl", T) - getG("H2", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            case 12:
-                // GaCl3 + NH3 = GaN + 3HCl
-                return Math.exp(-(getG("GaCl3", T) + getG("NH3", T) - getG("GaN", T) - 3 * getG("HCl", T)) / (R * T)) / ATMOSPHERIC_PRESSURE;
-            default:
-                return 0;
+        if (number < 1 || number > REACTIONS.length) {
+            return 0;
         }
+        return getCache().getK(T, number - 1);
     }
 }
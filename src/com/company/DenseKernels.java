@@ -0,0 +1,188 @@
+package com.company;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Blocked kernels over row-major n x n arrays for the large matrices of {@link Matrix}.
+ * Every kernel reads whole rows of A in order, works on a strip of the output that fits in
+ * cache, and from PARALLEL_WORK on splits the output rows between fork/join tasks.
+ * Sums are accumulated in the same order as the plain loops, so results are bit for bit equal.
+ * {@link #run} also splits the sweeps of {@link StationaryIteration}.
+ */
+final class DenseKernels {
+
+    /** Matrices smaller than this are left to the plain loops of Matrix **/
+    final static int BLOCKED_SIZE = 64;
+    /** Kernels of at least this many multiply-adds run in parallel, i.e. matrix-vector products from n = 256 **/
+    final static long PARALLEL_WORK = 1 << 16;
+    /** Rows of A reused from cache by one pass of the A^T A kernel **/
+    private final static int ROW_BLOCK = 64;
+    /** Elements of a vector strip, 8 KB stays in L1 **/
+    private final static int STRIP = 1024;
+    /** Multiply-adds below which a range of output rows is not split further **/
+    private final static long GRAIN = 1 << 16;
+
+    private DenseKernels() {
+    }
+
+    /**
+     * Computes output rows from (inclusive) to to (exclusive)
+     */
+    interface RowKernel {
+        void rows(int from, int to);
+    }
+
+    private static class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowKernel kernel;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RowTask(RowKernel kernel, int from, int to, int grain) {
+            this.kernel = kernel;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                kernel.rows(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowTask(kernel, from, middle, grain), new RowTask(kernel, middle, to, grain));
+        }
+    }
+
+    /**
+     * Runs the kernel over all rows, in the calling thread for less than PARALLEL_WORK, otherwise in
+     * the fork/join pool of the calling thread or the common pool
+     * @param rows number of output rows
+     * @param rowCost multiply-adds per output row
+     */
+    static void run(RowKernel kernel, int rows, long rowCost) {
+        if (rows < 2 || rows * rowCost < PARALLEL_WORK) {
+            kernel.rows(0, rows);
+            return;
+        }
+        int grain = (int) Math.max(1, GRAIN / Math.max(1, rowCost));
+        new RowTask(kernel, 0, rows, grain).invoke();
+    }
+
+    /**
+     * y = A x, four rows at a time over strips of x
+     */
+    static void multiply(final double[] a, final int n, final double[] x, final double[] y) {
+        run(new RowKernel() {
+            @Override
+            public void rows(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    y[i] = 0;
+                }
+                for (int first = 0; first < n; first += STRIP) {
+                    int last = Math.min(n, first + STRIP);
+                    int i = from;
+                    for (; i + 3 < to; i += 4) {
+                        int r0 = i * n, r1 = r0 + n, r2 = r1 + n, r3 = r2 + n;
+                        double s0 = y[i], s1 = y[i + 1], s2 = y[i + 2], s3 = y[i + 3];
+                        for (int j = first; j < last; j++) {
+                            double xj = x[j];
+                            s0 += a[r0 + j] * xj;
+                            s1 += a[r1 + j] * xj;
+                            s2 += a[r2 + j] * xj;
+                            s3 += a[r3 + j] * xj;
+                        }
+                        y[i] = s0;
+                        y[i + 1] = s1;
+                        y[i + 2] = s2;
+                        y[i + 3] = s3;
+                    }
+                    for (; i < to; i++) {
+                        int row = i * n;
+                        double s = y[i];
+                        for (int j = first; j < last; j++) {
+                            s += a[row + j] * x[j];
+                        }
+                        y[i] = s;
+                    }
+                }
+            }
+        }, n, n);
+    }
+
+    /**
+     * y = A^T x. Rows of A are read in order and added to a strip of y four at a time,
+     * instead of walking down the columns of A.
+     */
+    static void transposeMultiply(final double[] a, final int n, final double[] x, final double[] y) {
+        run(new RowKernel() {
+            @Override
+            public void rows(int from, int to) {
+                for (int first = from; first < to; first += STRIP) {
+                    int last = Math.min(to, first + STRIP);
+                    for (int j = first; j < last; j++) {
+                        y[j] = 0;
+                    }
+                    int i = 0;
+                    for (; i + 3 < n; i += 4) {
+                        int r0 = i * n, r1 = r0 + n, r2 = r1 + n, r3 = r2 + n;
+                        double x0 = x[i], x1 = x[i + 1], x2 = x[i + 2], x3 = x[i + 3];
+                        for (int j = first; j < last; j++) {
+                            double s = y[j];
+                            s += a[r0 + j] * x0;
+                            s += a[r1 + j] * x1;
+                            s += a[r2 + j] * x2;
+                            s += a[r3 + j] * x3;
+                            y[j] = s;
+                        }
+                    }
+                    for (; i < n; i++) {
+                        int row = i * n;
+                        double xi = x[i];
+                        for (int j = first; j < last; j++) {
+                            y[j] += a[row + j] * xi;
+                        }
+                    }
+                }
+            }
+        }, n, n);
+    }
+
+    /**
+     * A^T A as a sum of rank-one updates by the rows of A. Only the upper triangle is computed,
+     * blocks of ROW_BLOCK rows of A stay in cache while they update the task's rows of the result.
+     * @return row-major n x n result
+     */
+    static double[] gram(final double[] a, final int n) {
+        final double[] c = new double[n * n];
+        run(new RowKernel() {
+            @Override
+            public void rows(int from, int to) {
+                for (int first = 0; first < n; first += ROW_BLOCK) {
+                    int last = Math.min(n, first + ROW_BLOCK);
+                    for (int i = from; i < to; i++) {
+                        int row = i * n;
+                        for (int k = first; k < last; k++) {
+                            int rowK = k * n;
+                            double aki = a[rowK + i];
+                            for (int j = i; j < n; j++) {
+                                c[row + j] += aki * a[rowK + j];
+                            }
+                        }
+                    }
+                }
+                /** each element below the diagonal belongs to the task of its column **/
+                for (int i = from; i < to; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        c[j * n + i] = c[i * n + j];
+                    }
+                }
+            }
+        }, n, (long) n * n / 2);
+        return c;
+    }
+}
@@ -1,16 +1,41 @@
 package com.company;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 /**
  * System is represented by an array of functions that returns 0 on the answer.
  */
 public class EquationSystem {
 
-    private final static Random random = RandomHolder.random;
     private final static double GRADIENT_DESCENT_PRECISION = 1e-6;
+    /** Quasi-Newton modes refresh the Jacobian when discrepancy falls slower than this per iteration */
+    private final static double STALL_RATIO = 0.5;
+
+    /**
+     * How {@link #universalMethod} obtains the Jacobian on each iteration.
+     */
+    public enum JacobianMode {
+        /** Evaluate the Jacobian on every iteration */
+        NEWTON,
+        /** Keep the last evaluated Jacobian and its factorisation until convergence stalls */
+        CHORD,
+        /** Apply Broyden rank-1 updates to the last evaluated Jacobian until convergence stalls */
+        BROYDEN
+    }
 
 
+    /**
+     * Original search: doubles t while discrepancy decreases, then runs {@link #gradientDescent} from t = 1.
+     * Takes dozens of discrepancy evaluations per step, kept for comparison.
+     */
+    public final static LineSearch LOCAL_MINIMUM = new LineSearch() {
+        @Override
+        public double search(EquationSystem system, double[] x, double[] d, double f0, double slope) {
+            return system.localMinimum(x, d);
+        }
+    };
+
     /**
      * Finds infinity norm of vector x
      * @param x vector
@@ -35,12 +60,21 @@ public class EquationSystem {
      * @return x| f(x) is rough minimum
      */
     public static double gradientDescent(Function f, double x0, double initialStep, double precision) {
-        double[] arg = new double[1];
+        return gradientDescent(f, x0, initialStep, precision, new double[1], new double[1]);
+    }
+
+    /**
+     * Allocation-free variant of {@link #gradientDescent(Function, double, double, double)}
+     * @param arg buffer of size 1
+     * @param derivative buffer of size 1
+     */
+    private static double gradientDescent(Function f, double x0, double initialStep, double precision,
+                                          double[] arg, double[] derivative) {
         arg[0] = x0;
-        double derivative = f.totalDerivative(arg)[0];
+        f.totalDerivative(arg, derivative);
         double step = initialStep, x = x0, x1, min = f.calculate(arg);
         while (step > precision) {
-            if (derivative < 0) {
+            if (derivative[0] < 0) {
                 x1 = x + step;
             } else {
                 x1 = x - step;
@@ -51,7 +85,7 @@ public class EquationSystem {
                 min = cur;
                 x = x1;
                 arg[0] = x;
-                derivative = f.totalDerivative(arg)[0];
+                f.totalDerivative(arg, derivative);
             } else {
                 step /= 2;
             }
@@ -61,10 +95,174 @@ public class EquationSystem {
 
     private Function[] functions;
     private int n;
+    private final SolverWorkspace workspace;
+    /** Box constraints lower[i] <= x[i] <= upper[i], null if unbounded */
+    private double[] lower, upper;
+    private JacobianMode jacobianMode = JacobianMode.NEWTON;
+    private long jacobianEvaluations = 0;
+    private long jacobianReuses = 0;
+    private LineSearch lineSearch = new ArmijoLineSearch();
+    private long lineSearchEvaluations = 0;
+    /** Jacobian on the dependency pattern, null for the dense path, see {@link #setSparse} */
+    private SparseJacobian sparseJacobian = null;
+    /** True if the last Jacobian is held by sparseJacobian rather than the workspace LU */
+    private boolean sparseFactored = false;
+    /** Dense Jacobian evaluator, created on first use, see {@link #setDetectDependencies} */
+    private ColoredJacobian coloredJacobian = null;
+    private boolean detectDependencies = false;
+
+    /** Discrepancy on the line lineX + t * lineD, t = arg[0] */
+    private double[] lineX, lineD;
+    private final Function line = new Function() {
+        @Override
+        public double calculate(double[] arg) {
+            return discrepancy(lineX, lineD, arg[0]);
+        }
+    };
 
     public EquationSystem(Function[] functions) {
+        this(functions, new SolverWorkspace(functions.length));
+    }
+
+    /**
+     * @param functions system functions
+     * @param workspace buffers of size functions.length, e.g. {@link SolverWorkspace#forCurrentThread(int)}
+     */
+    public EquationSystem(Function[] functions, SolverWorkspace workspace) {
         this.functions = functions;
         n = functions.length;
+        if (workspace.size() != n) {
+            throw new IllegalArgumentException("Workspace size " + workspace.size() + " != " + n);
+        }
+        this.workspace = workspace;
+    }
+
+    /**
+     * @param workspace buffers for the copy
+     * @return system with the same functions, bounds, Jacobian mode and line search, sharing no mutable state
+     * with this one, so both can be solved concurrently
+     */
+    public EquationSystem copy(SolverWorkspace workspace) {
+        EquationSystem copy = new EquationSystem(functions, workspace);
+        copy.lower = lower;
+        copy.upper = upper;
+        copy.jacobianMode = jacobianMode;
+        copy.lineSearch = lineSearch;
+        copy.setSparse(sparseJacobian != null);
+        copy.detectDependencies = detectDependencies;
+        return copy;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Turns on projected Newton iterations: every trial point of the line search and every
+     * iterate is projected onto the box, so {@link #universalMethod} never leaves it.
+     * @param lower lower bounds, Double.NEGATIVE_INFINITY for unbounded variables
+     * @param upper upper bounds, Double.POSITIVE_INFINITY for unbounded variables
+     */
+    public void setBounds(double[] lower, double[] upper) {
+        if (lower.length != n || upper.length != n) {
+            throw new IllegalArgumentException("Bounds size != " + n);
+        }
+        for (int i = 0; i < n; i++) {
+            if (lower[i] > upper[i]) {
+                throw new IllegalArgumentException("Empty bounds for x[" + i + "]: " + lower[i] + " > " + upper[i]);
+            }
+        }
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+    }
+
+    public void setJacobianMode(JacobianMode jacobianMode) {
+        this.jacobianMode = jacobianMode;
+    }
+
+    public JacobianMode getJacobianMode() {
+        return jacobianMode;
+    }
+
+    /**
+     * Turns on the sparse Jacobian path: only entries of the {@link Function#dependencies} are evaluated,
+     * into a {@link SparseMatrix}, and Newton directions come from ILU(0) preconditioned BiCGSTAB,
+     * so an iteration costs in proportion to the non-zeros rather than n^2.
+     * Whenever the preconditioner or the iterations break down the Jacobian is solved by dense LU.
+     * Broyden updates are dense, so in BROYDEN mode the Jacobian is evaluated instead.
+     * @param sparse true to use the sparse path
+     * @return false if it cannot be used because a function declares no dependencies or the pattern is singular
+     */
+    public boolean setSparse(boolean sparse) {
+        sparseJacobian = sparse ? SparseJacobian.of(functions) : null;
+        sparseFactored = false;
+        return sparseJacobian != null || !sparse;
+    }
+
+    public boolean isSparse() {
+        return sparseJacobian != null;
+    }
+
+    /**
+     * Dense Jacobians are evaluated by {@link ColoredJacobian}: functions without analytic derivatives
+     * are differenced by groups of columns no function depends on together. Columns are grouped by
+     * {@link Function#dependencies}; with detection on, functions that declare none are probed once
+     * at the first Jacobian, otherwise they are taken to depend on every variable.
+     * @param detect true to probe functions for their dependencies, false by default
+     */
+    public void setDetectDependencies(boolean detect) {
+        detectDependencies = detect;
+        coloredJacobian = null;
+    }
+
+    /**
+     * @return Jacobians evaluated by {@link #universalMethod} since creation or {@link #resetStatistics()}
+     */
+    public long getJacobianEvaluations() {
+        return jacobianEvaluations;
+    }
+
+    /**
+     * @return iterations of {@link #universalMethod} that reused or updated an old Jacobian
+     * instead of evaluating it, i.e. Jacobian evaluations saved by CHORD or BROYDEN mode
+     */
+    public long getJacobianReuses() {
+        return jacobianReuses;
+    }
+
+    /**
+     * @return discrepancy evaluations on the search line since creation or {@link #resetStatistics()}
+     */
+    public long getLineSearchEvaluations() {
+        return lineSearchEvaluations;
+    }
+
+    public void resetStatistics() {
+        jacobianEvaluations = 0;
+        jacobianReuses = 0;
+        lineSearchEvaluations = 0;
+    }
+
+    /**
+     * @param lineSearch step length strategy of {@link #universalMethod}, {@link ArmijoLineSearch} by default
+     */
+    public void setLineSearch(LineSearch lineSearch) {
+        this.lineSearch = lineSearch;
+    }
+
+    /**
+     * Projects x onto the bounds box, see {@link #setBounds}
+     * @param x argument, changed in place
+     */
+    public void project(double[] x) {
+        if (lower == null) return;
+        for (int i = 0; i < n; i++) {
+            if (x[i] < lower[i]) {
+                x[i] = lower[i];
+            } else if (x[i] > upper[i]) {
+                x[i] = upper[i];
+            }
+        }
     }
 
     /**
@@ -84,13 +282,15 @@ public class EquationSystem {
      * @param x0 x0
      * @param d d
      * @param t t
-     * @return {@link com.company.EquationSystem#discrepancy}(x0 + t * d)
+     * @return {@link com.company.EquationSystem#discrepancy}(x0 + t * d), x0 + t * d projected onto the bounds
      */
     public double discrepancy(double[] x0, double[] d, double t) {
-        double[] x = new double[n];
+        lineSearchEvaluations++;
+        double[] x = workspace.trial;
         for (int i = 0; i < n; i++) {
             x[i] = x0[i] + t * d[i];
         }
+        project(x);
         return discrepancy(x);
     }
 
@@ -99,14 +299,118 @@ public class EquationSystem {
      * @return dx
      */
     public double[] linearDerivativeSolution(double[] x) {
-        double[] b = new double[n];
-        double[][] matrix = new double[n][];
+        double[] dx = new double[n];
+        linearDerivativeSolution(x, dx);
+        return dx;
+    }
+
+    /**
+     * Allocation-free variant of {@link #linearDerivativeSolution(double[])}
+     * @param x initial function argument, restored before return
+     * @param dx array to be filled with the solution, NaN if the Jacobian is singular
+     */
+    public void linearDerivativeSolution(double[] x, double[] dx) {
+        residual(x, workspace.b);
+        jacobian(x);
+        if (!solveLinear(workspace.b, dx)) {
+            Arrays.fill(dx, Double.NaN);
+        }
+    }
+
+    /**
+     * @param x argument
+     * @param b array to be filled with -fi(x)
+     * @return discrepancy(x)
+     */
+    private double residual(double[] x, double[] b) {
+        double discrepancy = 0;
         for (int i = 0; i < n; i++) {
             b[i] = -functions[i].calculate(x);
-            matrix[i] = functions[i].totalDerivative(x);
+            discrepancy += b[i] * b[i];
         }
-        Matrix m = new Matrix(matrix);
-        return m.gaussMethod(b);
+        return discrepancy;
+    }
+
+    /**
+     * Evaluates the Jacobian into the workspace and factors it
+     * @param x argument, restored before return
+     */
+    private void jacobian(double[] x) {
+        double[][] matrix = workspace.jacobian;
+        if (sparseJacobian != null) {
+            sparseFactored = sparseJacobian.evaluate(x);
+            if (!sparseFactored) {
+                sparseJacobian.copyTo(matrix);
+                workspace.lu.factor(matrix);
+            }
+            return;
+        }
+        if (coloredJacobian == null) {
+            coloredJacobian = new ColoredJacobian(functions, n, detectDependencies);
+        }
+        coloredJacobian.evaluate(x, matrix);
+        workspace.lu.factor(matrix);
+    }
+
+    /**
+     * Solves J dx = b for the last evaluated or updated Jacobian
+     * @return false if the Jacobian is singular or dx is not finite
+     */
+    private boolean solveLinear(double[] b, double[] dx) {
+        if (sparseFactored) {
+            if (sparseJacobian.solve(b, dx) && finite(dx)) {
+                return true;
+            }
+            sparseJacobian.copyTo(workspace.jacobian);
+            workspace.lu.factor(workspace.jacobian);
+            sparseFactored = false;
+        }
+        if (workspace.lu.isSingular()) {
+            return false;
+        }
+        workspace.lu.solve(b, dx);
+        return finite(dx);
+    }
+
+    private static boolean finite(double[] x) {
+        for (double xi : x) {
+            if (Double.isNaN(xi) || Double.isInfinite(xi)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Broyden rank-1 update J += (y - J s) s^T / (s^T s) of the workspace Jacobian, then refactors it
+     * @param s step x1 - x0
+     * @param y residual change F(x1) - F(x0)
+     * @return false if the step is zero or the Jacobian is sparse, and nothing was updated
+     */
+    private boolean broydenUpdate(double[] s, double[] y) {
+        if (sparseJacobian != null) {
+            return false;
+        }
+        double ss = 0;
+        for (int i = 0; i < n; i++) {
+            ss += s[i] * s[i];
+        }
+        if (ss == 0) {
+            return false;
+        }
+        double[][] matrix = workspace.jacobian;
+        for (int i = 0; i < n; i++) {
+            double r = y[i];
+            for (int j = 0; j < n; j++) {
+                r -= matrix[i][j] * s[j];
+            }
+            r /= ss;
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] += r * s[j];
+            }
+        }
+        workspace.lu.factor(matrix);
+        return true;
     }
 
     /**
@@ -124,13 +428,9 @@ public class EquationSystem {
             dr = discrepancy(x, d, r);
             cur = Math.min(cur, dr);
         } while (dr <= cur);
-        Function f = new Function() {
-            @Override
-            public double calculate(double[] arg) {
-                return discrepancy(x, d, arg[0]);
-            }
-        };
-        return gradientDescent(f, 1, 0.5, GRADIENT_DESCENT_PRECISION);
+        lineX = x;
+        lineD = d;
+        return gradientDescent(line, 1, 0.5, GRADIENT_DESCENT_PRECISION, workspace.arg, workspace.derivative);
     }
 
     /**
@@ -139,18 +439,110 @@ public class EquationSystem {
      * @return argument x, discrepancy(x) < eps
      */
     public double[] universalMethod(double eps, long maxIterations) {
+        return universalMethod(eps, maxIterations, null);
+    }
+
+    /**
+     * @param eps precision of finding x
+     * @param maxIterations maximum iterations count
+     * @param initial initial argument, e.g. solution of a neighbouring problem; random if null
+     * @return argument x, discrepancy(x) < eps; inside the bounds if they are set
+     */
+    public double[] universalMethod(double eps, long maxIterations, double[] initial) {
+        return universalMethod(eps, maxIterations, initial, RandomHolder.current());
+    }
+
+    /**
+     * Stops early, returning the current argument, if the thread is interrupted, x stops moving
+     * or the Jacobian at x is singular.
+     * @param eps precision of finding x
+     * @param maxIterations maximum iterations count
+     * @param initial initial argument, e.g. solution of a neighbouring problem; random if null
+     * @param random source of the random initial argument
+     * @return argument x, discrepancy(x) < eps; inside the bounds if they are set
+     */
+    public double[] universalMethod(double eps, long maxIterations, double[] initial, SplittableRandom random) {
         double[] x = new double[n];
         for (int i = 0; i < n; i++) {
-            x[i] = random.nextDouble();
+            x[i] = initial != null ? initial[i] : random.nextDouble();
         }
+        project(x);
+        double[] dx = workspace.dx;
+        double[] b = workspace.b;
+        double[] step = workspace.step;
+        double[] previousB = workspace.previousB;
+        /** A Jacobian of this solve is factored, it was evaluated at the current x, the last step did not move x **/
+        boolean factored = false;
+        boolean fresh = false;
+        boolean stuck = false;
+        double previousDiscrepancy = Double.POSITIVE_INFINITY;
         for (int q = 0; q < maxIterations; q++) {
-            double [] dx = linearDerivativeSolution(x);
-            double k = localMinimum(x, dx);
+            if (Thread.currentThread().isInterrupted()) break;
+            double discrepancy = residual(x, b);
+            boolean refresh = !factored || stuck || jacobianMode == JacobianMode.NEWTON
+                || discrepancy > STALL_RATIO * previousDiscrepancy;
+            if (!refresh && jacobianMode == JacobianMode.BROYDEN) {
+                /** y = F(x) - F(x - step) = previousB - b **/
+                for (int i = 0; i < n; i++) {
+                    previousB[i] -= b[i];
+                }
+                refresh = !broydenUpdate(step, previousB);
+            }
+            if (refresh) {
+                jacobian(x);
+                jacobianEvaluations++;
+            } else {
+                jacobianReuses++;
+            }
+            factored = true;
+            fresh = refresh;
+            stuck = false;
+            previousDiscrepancy = discrepancy;
+            System.arraycopy(b, 0, previousB, 0, n);
+            if (!solveLinear(b, dx)) {
+                /** a singular fresh Jacobian gives no direction, leave the start to be rejected **/
+                if (fresh) break;
+                stuck = true;
+                continue;
+            }
+            /**
+             * For J(x) dx = -F derivative of |F(x + t dx)|^2 at 0 is -2|F|^2. An old or updated Jacobian
+             * gives no derivative, nor does a direction the bounds stop at once
+             */
+            double slope = fresh && !blocked(x, dx) ? -2 * discrepancy : Double.NaN;
+            double k = lineSearch.search(this, x, dx, discrepancy, slope);
+            boolean moved = false;
             for (int i = 0; i < n; i++) {
+                double xi = x[i];
                 x[i] += k * dx[i];
+                if (lower != null) {
+                    x[i] = Math.max(lower[i], Math.min(upper[i], x[i]));
+                }
+                step[i] = x[i] - xi;
+                /** false for NaN too, a NaN step must not count as progress **/
+                moved |= Math.abs(step[i]) > 0;
             }
             if (getNorm(dx) < eps) break;
+            /** With a fresh Jacobian iteration only depends on x, so it will never move again **/
+            if (!moved) {
+                if (fresh) break;
+                stuck = true;
+            }
         }
         return x;
     }
+
+    /**
+     * @return true if some x[i] is at a bound and d points out of the box there, so the projected
+     * path x + t * d does not move along d
+     */
+    private boolean blocked(double[] x, double[] d) {
+        if (lower == null) return false;
+        for (int i = 0; i < n; i++) {
+            if (x[i] <= lower[i] && d[i] < 0 || x[i] >= upper[i] && d[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
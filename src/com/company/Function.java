@@ -1,21 +1,71 @@
 package com.company;
 
-import java.util.Arrays;
-
 public abstract class Function {
-    private static final double EPS = 1e-6;
+    /** Forward difference step, also used by {@link ColoredJacobian} */
+    static final double EPS = 1e-6;
 
     public abstract double calculate(double[] x);
 
-    public double[] totalDerivative(double[] x) {
-        double[] xn = Arrays.copyOf(x, x.length);
+    /**
+     * Analytic partial derivatives. Functions that know them override this method,
+     * otherwise {@link #totalDerivative} falls back to forward differences.
+     * @param x argument
+     * @param result array to be filled with df/dx[i], i = 0..x.length-1
+     * @return false if analytic derivative is unknown
+     */
+    public boolean derivative(double[] x, double[] result) {
+        return false;
+    }
+
+    /**
+     * Variables the function depends on, derivatives by all others are zero.
+     * Lets {@link EquationSystem#setSparse} keep only these Jacobian entries.
+     * @return increasing variable indices, null if the function may depend on every variable
+     */
+    public int[] dependencies() {
+        return null;
+    }
+
+    /**
+     * Partial derivatives by the variables of {@link #dependencies()} only. Forward differences
+     * by these variables unless overridden, so functions with analytic derivatives should override it too.
+     * @param x argument, perturbed during the call and restored before return
+     * @param result array to be filled with df/dx[dependencies()[k]]
+     */
+    public void sparseDerivative(double[] x, double[] result) {
+        int[] variables = dependencies();
         double y = calculate(x);
+        for (int k = 0; k < variables.length; k++) {
+            int i = variables[k];
+            double xi = x[i];
+            x[i] = xi + EPS;
+            result[k] = (calculate(x) - y) / EPS;
+            x[i] = xi;
+        }
+    }
+
+    public double[] totalDerivative(double[] x) {
         double[] res = new double[x.length];
+        totalDerivative(x.clone(), res);
+        return res;
+    }
+
+    /**
+     * Allocation-free variant of {@link #totalDerivative(double[])}.
+     * x is perturbed during the call and restored before return.
+     * @param x argument
+     * @param res array to be filled with df/dx[i]
+     */
+    public void totalDerivative(double[] x, double[] res) {
+        if (derivative(x, res)) {
+            return;
+        }
+        double y = calculate(x);
         for (int i = 0; i < x.length; i++) {
-            xn[i] += EPS;
-            res[i] = (calculate(xn) - y) / EPS;
-            xn[i] = x[i];
+            double xi = x[i];
+            x[i] = xi + EPS;
+            res[i] = (calculate(x) - y) / EPS;
+            x[i] = xi;
         }
-        return res;
     }
 }
@@ -0,0 +1,106 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * ILU(0): LU factors of a {@link SparseMatrix} restricted to its own non-zero structure, without pivoting.
+ * L has implicit unit diagonal and is stored below the diagonal, U on and above it.
+ * As a {@link Preconditioner} it applies (LU)^-1.
+ */
+public class IncompleteLU implements Preconditioner {
+
+    private final SparseMatrix lu;
+    private final int n;
+    private final int[] rowStart;
+    private final int[] column;
+    private final double[] values;
+    /** Position of the diagonal element of each row **/
+    private final int[] diagonal;
+    /** Position of column j in the row being factored, -1 if absent **/
+    private final int[] marker;
+    private boolean singular;
+
+    /**
+     * Creates an empty factorisation to be filled by {@link #factor}
+     * @param structure matrices to be factored have this structure, which must include the diagonal
+     */
+    public IncompleteLU(SparseMatrix structure) {
+        lu = new SparseMatrix(structure);
+        n = lu.size();
+        rowStart = lu.getRowStart();
+        column = lu.getColumns();
+        values = lu.getValues();
+        diagonal = new int[n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] = lu.index(i, i);
+            if (diagonal[i] < 0) {
+                throw new IllegalArgumentException("No diagonal element in row " + i);
+            }
+        }
+        marker = new int[n];
+        Arrays.fill(marker, -1);
+    }
+
+    /**
+     * @return true if a zero pivot was met, {@link #apply} then gives infinities or NaN
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @param a matrix with the structure given on creation, not changed
+     */
+    public void factor(SparseMatrix a) {
+        if (!a.sameStructure(lu)) {
+            throw new IllegalArgumentException("Matrix structure differs from the factorisation");
+        }
+        System.arraycopy(a.getValues(), 0, values, 0, values.length);
+        singular = false;
+        for (int i = 0; i < n; i++) {
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                marker[column[p]] = p;
+            }
+            /** eliminate row i by the rows k < i it has non-zeros in, dropping fill-in **/
+            for (int p = rowStart[i]; p < diagonal[i]; p++) {
+                int k = column[p];
+                double factor = values[p] / values[diagonal[k]];
+                values[p] = factor;
+                if (factor != 0) {
+                    for (int q = diagonal[k] + 1; q < rowStart[k + 1]; q++) {
+                        int position = marker[column[q]];
+                        if (position >= 0) {
+                            values[position] -= factor * values[q];
+                        }
+                    }
+                }
+            }
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                marker[column[p]] = -1;
+            }
+            if (values[diagonal[i]] == 0) {
+                singular = true;
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        /** forward substitution Ly = r **/
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int p = rowStart[i]; p < diagonal[i]; p++) {
+                sum -= values[p] * z[column[p]];
+            }
+            z[i] = sum;
+        }
+        /** back substitution Uz = y **/
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int p = diagonal[i] + 1; p < rowStart[i + 1]; p++) {
+                sum -= values[p] * z[column[p]];
+            }
+            z[i] = sum / values[diagonal[i]];
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Iterative solver of Ax = b that uses A only through {@link LinearOperator} products,
+ * so one iteration costs O(n^2) for a dense A and nothing of size n x n is formed.
+ * Iterations stop when |b - Ax| <= tolerance * |b|. Work vectors are allocated once,
+ * one solver can be reused for any number of systems of its size but not by several threads at once.
+ */
+public class KrylovSolver {
+
+    public enum Method {
+        /**
+         * Conjugate gradients on A^T A x = A^T b. Works for any nonsingular A, needs
+         * {@link LinearOperator#applyTranspose}; the preconditioner approximates (A^T A)^-1.
+         */
+        CGNR,
+        /**
+         * Stabilized biconjugate gradients for nonsymmetric A, right preconditioned:
+         * the preconditioner approximates A^-1.
+         */
+        BICGSTAB
+    }
+
+    private final static Preconditioner IDENTITY = new Preconditioner() {
+        @Override
+        public void apply(double[] r, double[] z) {
+            System.arraycopy(r, 0, z, 0, r.length);
+        }
+    };
+
+    private final int n;
+    private final Method method;
+    private double tolerance = 1e-10;
+    private long maxIterations;
+    private Preconditioner preconditioner = IDENTITY;
+
+    private final double[] r;
+    private final double[] p;
+    private final double[] q;
+    private final double[] s;
+    private final double[] z;
+    /** Shadow residual, preconditioned search direction and A times it, used by BiCGSTAB only **/
+    private final double[] shadow;
+    private final double[] pHat;
+    private final double[] sHat;
+
+    private long iterations = 0;
+    private double residualNorm = 0;
+
+    /**
+     * @param n system size
+     * @param method Krylov method
+     */
+    public KrylovSolver(int n, Method method) {
+        this.n = n;
+        this.method = method;
+        maxIterations = 10L * n + 10;
+        r = new double[n];
+        p = new double[n];
+        q = new double[n];
+        s = new double[n];
+        z = new double[n];
+        boolean bicgstab = method == Method.BICGSTAB;
+        shadow = bicgstab ? new double[n] : null;
+        pHat = bicgstab ? new double[n] : null;
+        sHat = bicgstab ? new double[n] : null;
+    }
+
+    /**
+     * Jacobi preconditioner of a dense matrix: diag(A) for BiCGSTAB, diag(A^T A), the squared
+     * column norms, for CGNR
+     * @param a matrix of the system
+     * @param method method the preconditioner is for
+     * @return diagonal preconditioner, zero diagonal elements are taken as 1
+     */
+    public static Preconditioner jacobi(Matrix a, Method method) {
+        int n = a.size();
+        double[] values = a.getValues();
+        double[] diagonal = new double[n];
+        if (method == Method.CGNR) {
+            for (int k = 0; k < n; k++) {
+                for (int j = 0; j < n; j++) {
+                    diagonal[j] += values[k * n + j] * values[k * n + j];
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                diagonal[i] = values[i * n + i];
+            }
+        }
+        return diagonal(diagonal);
+    }
+
+    /**
+     * @param diagonal diagonal of M, zero elements are taken as 1
+     * @return z = r / diagonal
+     */
+    public static Preconditioner diagonal(double[] diagonal) {
+        final double[] inverse = new double[diagonal.length];
+        for (int i = 0; i < inverse.length; i++) {
+            inverse[i] = diagonal[i] != 0 ? 1 / diagonal[i] : 1;
+        }
+        return new Preconditioner() {
+            @Override
+            public void apply(double[] r, double[] z) {
+                for (int i = 0; i < inverse.length; i++) {
+                    z[i] = inverse[i] * r[i];
+                }
+            }
+        };
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @param tolerance bound of |b - Ax| / |b|, 1e-10 by default; 0 iterates until the residual
+     * vanishes, breakdown or the iteration limit
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerance must be non-negative: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @param maxIterations maximum iterations count, 10n + 10 by default
+     */
+    public void setMaxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param preconditioner approximate inverse, see {@link Method}; null for none
+     */
+    public void setPreconditioner(Preconditioner preconditioner) {
+        this.preconditioner = preconditioner == null ? IDENTITY : preconditioner;
+    }
+
+    /**
+     * @return iterations made by the last {@link #solve}
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return |b - Ax| after the last {@link #solve}
+     */
+    public double getResidualNorm() {
+        return residualNorm;
+    }
+
+    /**
+     * @param a operator of size n
+     * @param b right side, not changed
+     * @param x initial guess, replaced by the solution
+     * @return true if the residual dropped to tolerance * |b|, false on iteration limit or breakdown
+     */
+    public boolean solve(LinearOperator a, double[] b, double[] x) {
+        if (a.size() != n || b.length != n || x.length != n) {
+            throw new IllegalArgumentException("Expected size " + n);
+        }
+        iterations = 0;
+        double normB = norm(b);
+        if (normB == 0) {
+            Arrays.fill(x, 0);
+            residualNorm = 0;
+            return true;
+        }
+        double bound = tolerance * normB;
+        /** r = b - Ax **/
+        a.apply(x, r);
+        for (int i = 0; i < n; i++) {
+            r[i] = b[i] - r[i];
+        }
+        residualNorm = norm(r);
+        if (residualNorm <= bound) {
+            return true;
+        }
+        return method == Method.CGNR ? cgnr(a, x, bound) : bicgstab(a, x, bound);
+    }
+
+    /**
+     * Preconditioned conjugate gradients on the normal equations; s = A^T r is their residual
+     */
+    private boolean cgnr(LinearOperator a, double[] x, double bound) {
+        a.applyTranspose(r, s);
+        preconditioner.apply(s, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double gamma = dot(s, z);
+        while (iterations < maxIterations) {
+            if (gamma == 0) {
+                return false;
+            }
+            iterations++;
+            a.apply(p, q);
+            double qq = dot(q, q);
+            if (qq == 0) {
+                return false;
+            }
+            double alpha = gamma / qq;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+            }
+            residualNorm = norm(r);
+            if (residualNorm <= bound) {
+                return true;
+            }
+            a.applyTranspose(r, s);
+            preconditioner.apply(s, z);
+            double next = dot(s, z);
+            double beta = next / gamma;
+            gamma = next;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Right preconditioned BiCGSTAB: q holds A pHat, z holds A sHat
+     */
+    private boolean bicgstab(LinearOperator a, double[] x, double bound) {
+        System.arraycopy(r, 0, shadow, 0, n);
+        Arrays.fill(p, 0);
+        Arrays.fill(q, 0);
+        double rho = 1, alpha = 1, omega = 1;
+        while (iterations < maxIterations) {
+            double next = dot(shadow, r);
+            if (next == 0 || omega == 0) {
+                return false;
+            }
+            iterations++;
+            double beta = next / rho * (alpha / omega);
+            rho = next;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * (p[i] - omega * q[i]);
+            }
+            preconditioner.apply(p, pHat);
+            a.apply(pHat, q);
+            double shadowQ = dot(shadow, q);
+            if (shadowQ == 0) {
+                return false;
+            }
+            alpha = rho / shadowQ;
+            for (int i = 0; i < n; i++) {
+                s[i] = r[i] - alpha * q[i];
+            }
+            double sNorm = norm(s);
+            if (sNorm <= bound) {
+                for (int i = 0; i < n; i++) {
+                    x[i] += alpha * pHat[i];
+                }
+                residualNorm = sNorm;
+                return true;
+            }
+            preconditioner.apply(s, sHat);
+            a.apply(sHat, z);
+            double zz = dot(z, z);
+            omega = zz == 0 ? 0 : dot(z, s) / zz;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * z[i];
+            }
+            residualNorm = norm(r);
+            if (residualNorm <= bound) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double result = 0;
+        for (int i = 0; i < a.length; i++) {
+            result += a[i] * b[i];
+        }
+        return result;
+    }
+
+    private static double norm(double[] a) {
+        return Math.sqrt(dot(a, a));
+    }
+}
@@ -0,0 +1,146 @@
+package com.company;
+
+/**
+ * PA = LU decomposition with partial (row) pivoting, stored in one row-major array:
+ * U on and above the diagonal, L below it with implicit unit diagonal.
+ * One instance can be refactored many times and solved for any number of right sides.
+ */
+public class LUDecomposition {
+
+    private final int n;
+    private final double[] lu;
+    /** Row i of PA is row pivot[i] of A */
+    private final int[] pivot;
+    private boolean singular;
+
+    /**
+     * Creates an empty decomposition to be filled by {@link #factor}
+     * @param n matrix size
+     */
+    public LUDecomposition(int n) {
+        this.n = n;
+        lu = new double[n * n];
+        pivot = new int[n];
+    }
+
+    public LUDecomposition(Matrix m) {
+        this(m.size());
+        factor(m);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return true if a zero pivot was met, solutions then contain infinities or NaN
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @param m matrix of size n, not changed
+     */
+    public void factor(Matrix m) {
+        if (m.size() != n) {
+            throw new IllegalArgumentException("Matrix size " + m.size() + " != " + n);
+        }
+        System.arraycopy(m.getValues(), 0, lu, 0, n * n);
+        factor();
+    }
+
+    /**
+     * @param rows n rows of size n, not changed
+     */
+    public void factor(double[][] rows) {
+        if (rows.length != n) {
+            throw new IllegalArgumentException("Matrix size " + rows.length + " != " + n);
+        }
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(rows[i], 0, lu, i * n, n);
+        }
+        factor();
+    }
+
+    private void factor() {
+        singular = false;
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+        for (int k = 0; k < n; k++) {
+            /** find pivot row in column k **/
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(lu[i * n + k]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (p != k) {
+                int kn = k * n, pn = p * n;
+                for (int j = 0; j < n; j++) {
+                    double t = lu[kn + j];
+                    lu[kn + j] = lu[pn + j];
+                    lu[pn + j] = t;
+                }
+                int t = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = t;
+            }
+            double d = lu[k * n + k];
+            if (d == 0) {
+                singular = true;
+                continue;
+            }
+            /** eliminate below the pivot, rows are contiguous **/
+            for (int i = k + 1; i < n; i++) {
+                int in = i * n, kn = k * n;
+                double factor = lu[in + k] / d;
+                lu[in + k] = factor;
+                if (factor != 0) {
+                    for (int j = k + 1; j < n; j++) {
+                        lu[in + j] -= factor * lu[kn + j];
+                    }
+                }
+            }
+        }
+    }
+
+    public double[] solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        return x;
+    }
+
+    /**
+     * Solves Ax = b without allocation
+     * @param b right side, not changed
+     * @param x array to be filled with the solution, must not be b
+     */
+    public void solve(double[] b, double[] x) {
+        if (b == x) {
+            throw new IllegalArgumentException("b and x must be different arrays");
+        }
+        /** forward substitution Ly = Pb **/
+        for (int i = 0; i < n; i++) {
+            double sum = b[pivot[i]];
+            int in = i * n;
+            for (int j = 0; j < i; j++) {
+                sum -= lu[in + j] * x[j];
+            }
+            x[i] = sum;
+        }
+        /** back substitution Ux = y **/
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            int in = i * n;
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[in + j] * x[j];
+            }
+            x[i] = sum / lu[in + i];
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.company;
+
+/**
+ * Chooses step length t along a descent direction of {@link EquationSystem#discrepancy}.
+ */
+public interface LineSearch {
+
+    /**
+     * @param system equation system, evaluates discrepancy(x + t * d) with {@link EquationSystem#discrepancy(double[], double[], double)}
+     * @param x current argument, not changed
+     * @param d search direction
+     * @param f0 discrepancy(x)
+     * @param slope derivative of discrepancy(x + t * d) by t at t = 0, negative for a descent direction;
+     * NaN if it is not known, e.g. d comes from an old Jacobian
+     * @return step t, 0 if no acceptable step was found
+     */
+    double search(EquationSystem system, double[] x, double[] d, double f0, double slope);
+}
@@ -0,0 +1,26 @@
+package com.company;
+
+/**
+ * Square linear map known only through products with vectors, see {@link KrylovSolver}
+ */
+public interface LinearOperator {
+
+    /**
+     * @return number of rows and columns
+     */
+    int size();
+
+    /**
+     * y = A x
+     * @param x argument, not changed
+     * @param y array to be filled with the product, must not be x
+     */
+    void apply(double[] x, double[] y);
+
+    /**
+     * y = A^T x, only needed by {@link KrylovSolver.Method#CGNR}
+     * @param x argument, not changed
+     * @param y array to be filled with the product, must not be x
+     */
+    void applyTranspose(double[] x, double[] y);
+}
@@ -7,293 +7,305 @@ public class Main {
 
     // We allow answer pressures in [-ALLOWED_DISCREPANCY; ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY]
     public static final double ALLOWED_DISCREPANCY = 1000;
+    // Answers with greater sum of squared residuals are stuck starts, not roots
+    public static final double ACCEPTED_DISCREPANCY = 1e-10;
+    // Concurrent Newton starts per round and rounds before the best answer is taken as is
+    public static final int STARTS = 4;
+    public static final int ROUNDS = 8;
+    // With a fixed algan.seed the earliest accepted start wins rather than the fastest, so runs repeat exactly
+    private static final boolean REPRODUCIBLE = System.getProperty("algan.seed") != null;
+    // Plot data is written with decimal commas
+    private static final Locale PLOT_LOCALE = new Locale("ru");
+    // Lockstep iterations of batch solves before the remaining points are solved one by one
+    public static final int BATCH_ITERATIONS = 500;
 
-    public static void solveAlClx(Map<String, Double> pressure, double T, double delta, PrintWriter out) {
-        final String[] chemicalAgent = new String[5];
-        chemicalAgent[0] = "HCl";
-        chemicalAgent[1] = "AlCl";
-        chemicalAgent[2] = "AlCl2";
-        chemicalAgent[3] = "AlCl3";
-        chemicalAgent[4] = "H2";
-        final double k1 = DataHolder.getK(T, 1);
-        final double k2 = DataHolder.getK(T, 2);
-        final double k3 = DataHolder.getK(T, 3);
-        // x[i] = Pe(chemicalAgent[i])
-        Function[] functions = new Function[5];
-        // 2 HCl + 2 Al = 2 AlCl + H2
-        // Pe(HCl)^2 = K1 * Pe(AlCl)^2 * Pe(H2)
-        functions[0] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[0] * x[0] - k1 * x[1] * x[1] * x[4];
-            }
-        };
-        // 2 HCl + Al = AlCl2 + H2
-        // Pe(HCl) ^ 2 = K2 * Pe(AlCl2) * Pe(H2)
-        functions[1] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[0] * x[0] - k2 * x[2] * x[4];
-            }
-        };
-        // 6 HCl + 2 Al = 2 AlCl3 + 3 H2
-        // Pe(HCl)^6 = K3 * Pe(AlCl3)^2 * Pe(H2)^3
-        functions[2] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return Math.pow(x[0], 6) - k3 * x[3] * x[3] * x[4] * x[4] * x[4];
-            }
-        };
-        final double[] p = new double[5];
-        final double[] d = new double[5];
-        for (int i = 0; i < 5; i++) {
-            p[i] = pressure.get(chemicalAgent[i]);
-            d[i] = DataHolder.getD(chemicalAgent[i], T);
+    private final static ReactorModel AL_CL = chlorideModel("Al");
+    private final static ReactorModel GA_CL = chlorideModel("Ga");
+    // Unknowns are Pe(HCl), Pe(GaCl), Pe(NH3), Pe(AlCl3), Pe(H2) and x = G(AlCl3) / (G(AlCl3) + G(GaCl))
+    private final static ReactorModel AL_GA_N = new ReactorModel.Builder()
+        .gas("HCl", "GaCl", "NH3", "AlCl3", "H2")
+        .solidSolution("x", "AlN", "GaN")
+        .reaction("AlCl3 + NH3 = AlN + 3 HCl")
+        .reaction("GaCl + NH3 = GaN + HCl + H2")
+        .balance("H")
+        .balance("Cl")
+        .balance("Al + Ga = N")
+        .fraction("x", "Al", "Al + Ga")
+        .build();
+
+    /**
+     * @param metal "Al" or "Ga"
+     * @return model of task 1 or 2, equilibrium of HCl with the metal,
+     * unknowns are Pe(HCl), Pe(MCl), Pe(MCl2), Pe(MCl3), Pe(H2)
+     */
+    public static ReactorModel getChlorideModel(String metal) {
+        if ("Al".equals(metal)) {
+            return AL_CL;
         }
-        // G(H) = G(HCl) + 2 * G(H2) = 0
-        // D(HCl) * (Pg(HCl) - Pe(HCl)) + 2 * D(H2) * (Pg(H2) - Pe(H2)) = 0
-        functions[3] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[0] * (p[0] - x[0]) + 2 * d[4] * (p[4] - x[4]);
-            }
-        };
-        // G(Cl) = G(HCl) + G(AlCl) + 2 * G(AlCl2) + 3 * G(AlCl3) = 0
-        // D(HCl) * (Pg(HCl) - Pe(HCl)) + D(AlCl) * (Pg(AlCl) - Pe(AlCl)) + 2 * D(AlCl2) * (Pg(AlCl2) - Pe(AlCl2))
-        // + 3 * D(AlCl3) * (Pg(AlCl3) - Pe(AlCl3)) = 0
-        functions[4] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[1] * (p[1] - x[1]) + 2 * d[2] * (p[2] - x[2]) + 3 * d[3] * (p[3] - x[3]) + d[0] * (p[0] - x[0]);
-            }
-        };
-        EquationSystem equationSystem = new EquationSystem(functions);
-        boolean correct = false;
-        double[] x = null;
-        while (!correct) {
-            x = equationSystem.universalMethod(1e-12, 1000000);
-            correct = true;
-            for (int i = 0; i < 5; i++) {
-                correct &= (x[i] >= -ALLOWED_DISCREPANCY && x[i] <= DataHolder.ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY);
-            }
+        if ("Ga".equals(metal)) {
+            return GA_CL;
         }
-        System.out.println("T = " + T);
-        out.println("T = " + T);
-        for (int i = 0; i < 5; i++) {
-            System.out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
-            out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
+        throw new IllegalArgumentException("No chloride model for " + metal);
+    }
+
+    /**
+     * @return model of task 3, unknowns are Pe(HCl), Pe(GaCl), Pe(NH3), Pe(AlCl3), Pe(H2) and x
+     */
+    public static ReactorModel getAlGaNModel() {
+        return AL_GA_N;
+    }
+
+    private static ReactorModel chlorideModel(String metal) {
+        return new ReactorModel.Builder()
+            .gas("HCl", metal + "Cl", metal + "Cl2", metal + "Cl3", "H2")
+            .reaction("2 HCl + 2 " + metal + " = 2 " + metal + "Cl + H2")
+            .reaction("2 HCl + " + metal + " = " + metal + "Cl2 + H2")
+            .reaction("6 HCl + 2 " + metal + " = 2 " + metal + "Cl3 + 3 H2")
+            .balance("H")
+            .balance("Cl")
+            .build();
+    }
+
+    /**
+     * Runs up to STARTS * ROUNDS starts, the first one from initial, and returns the first root found.
+     * Pressures are kept in the allowed range, compositions in [0, 1].
+     * @throws IllegalStateException if no start reached discrepancy ACCEPTED_DISCREPANCY, e.g. all got stuck at a bound
+     */
+    private static double[] solve(ReactorModel model, Function[] functions, double[] initial) {
+        EquationSystem equationSystem = new EquationSystem(functions, SolverWorkspace.forCurrentThread(functions.length));
+        double[] lower = new double[functions.length];
+        double[] upper = new double[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+            lower[i] = model.isGas(i) ? -ALLOWED_DISCREPANCY : 0;
+            upper[i] = model.isGas(i) ? DataHolder.ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY : 1;
         }
-        double[] g = new double[5];
-        for (int i = 0; i < 5; i++) {
-            g[i] = d[i] * (p[i] - x[i]) / (8314 * T * delta);
-            System.out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
-            out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
+        equationSystem.setBounds(lower, upper);
+        MultiStartSolver solver = new MultiStartSolver(equationSystem, STARTS, ROUNDS);
+        solver.setDeterministic(REPRODUCIBLE);
+        /** a projected start stuck at a bound ends in range, but is not a root, so it is not accepted **/
+        double[] x = solver.solve(1e-12, 1000000, initial, MultiStartSolver.discrepancyBelow(ACCEPTED_DISCREPANCY));
+        if (x == null) {
+            throw new IllegalStateException("No root found in " + STARTS * ROUNDS + " starts");
         }
-        double v = (g[1] + g[2] + g[3]) * (DataHolder.getDouble("mu", "Al") / DataHolder.getDouble("density", "Al")) * 1000000000;
-        System.out.println("Ve(Al) = " + v);
-        out.println("Ve(Al) = " + v);
+        return x;
     }
 
-    public static void solveGaClx(Map<String, Double> pressure, double T, double delta, PrintWriter out) {
-        final String[] chemicalAgent = new String[5];
-        chemicalAgent[0] = "HCl";
-        chemicalAgent[1] = "GaCl";
-        chemicalAgent[2] = "GaCl2";
-        chemicalAgent[3] = "GaCl3";
-        chemicalAgent[4] = "H2";
-        final double k4 = DataHolder.getK(T, 4);
-        final double k5 = DataHolder.getK(T, 5);
-        final double k6 = DataHolder.getK(T, 6);
-        // x[i] = Pe(chemicalAgent[i])
-        Function[] functions = new Function[5];
-        // 2 HCl + 2 Ga = 2 GaCl + H2
-        // Pe(HCl)^2 = K4 * Pe(GaCl)^2 * Pe(H2)
-        functions[0] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[0] * x[0] - k4 * x[1] * x[1] * x[4];
-            }
-        };
-        // 2 HCl + Ga = GaCl2 + H2
-        // Pe(HCl)^2 = K5 * Pe(GaCl2) * Pe(H2)
-        functions[1] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[0] * x[0] - k5 * x[2] * x[4];
-            }
-        };
-        // 6 HCl + 2 Ga = 2 GaCl3 + 3 H2
-        // Pe(HCl)^6 = K6 * Pe(GaCl3)^2 * Pe(H2)^3
-        functions[2] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return Math.pow(x[0], 6) - k6 * x[3] * x[3] * x[4] * x[4] * x[4];
-            }
-        };
-        final double[] p = new double[5];
-        final double[] d = new double[5];
+    public static void solveAlClx(Map<String, Double> pressure, double T, double delta, ResultSink sink) throws IOException {
+        sink.accept(solveAlClx(pressure, T, delta));
+    }
+
+    public static PointResult solveAlClx(Map<String, Double> pressure, double T, double delta) {
+        return solveAlClx(pressure, T, delta, (double[]) null);
+    }
+
+    /**
+     * @param initial initial argument, random if null
+     */
+    public static PointResult solveAlClx(Map<String, Double> pressure, double T, double delta, double[] initial) {
+        return solveChlorides(AL_CL, "Al", pressure, T, delta, initial);
+    }
+
+    public static void solveGaClx(Map<String, Double> pressure, double T, double delta, ResultSink sink) throws IOException {
+        sink.accept(solveGaClx(pressure, T, delta));
+    }
+
+    public static PointResult solveGaClx(Map<String, Double> pressure, double T, double delta) {
+        return solveGaClx(pressure, T, delta, (double[]) null);
+    }
+
+    /**
+     * @param initial initial argument, random if null
+     */
+    public static PointResult solveGaClx(Map<String, Double> pressure, double T, double delta, double[] initial) {
+        return solveChlorides(GA_CL, "Ga", pressure, T, delta, initial);
+    }
+
+    private static PointResult solveChlorides(ReactorModel model, String metal, Map<String, Double> pressure,
+                                              double T, double delta, double[] initial) {
+        String[] chemicalAgent = new String[5];
+        double[] p = new double[5];
+        double[] d = new double[5];
         for (int i = 0; i < 5; i++) {
+            chemicalAgent[i] = model.getGas(i);
             p[i] = pressure.get(chemicalAgent[i]);
             d[i] = DataHolder.getD(chemicalAgent[i], T);
         }
-        // G(H) = G(HCl) + 2 * G(H2) = 0
-        // D(HCl) * (Pg(HCl) - Pe(HCl)) + 2 * D(H2) * (Pg(H2) - Pe(H2)) = 0
-        functions[3] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[0] * (p[0] - x[0]) + 2 * d[4] * (p[4] - x[4]);
+        double[] x = solve(model, model.functions(T, p, d), initial);
+        return chlorideResult(metal, chemicalAgent, T, delta, x, p, d);
+    }
+
+    /**
+     * Solves the Al system at every temperature of T in lockstep, see {@link BatchNewtonSolver}
+     */
+    public static List<PointResult> solveAlClx(Map<String, Double> pressure, double[] T, double delta) {
+        return solveChlorides(AL_CL, "Al", pressure, T, delta);
+    }
+
+    /**
+     * Solves the Ga system at every temperature of T in lockstep, see {@link BatchNewtonSolver}
+     */
+    public static List<PointResult> solveGaClx(Map<String, Double> pressure, double[] T, double delta) {
+        return solveChlorides(GA_CL, "Ga", pressure, T, delta);
+    }
+
+    /**
+     * All points start from the solution at the middle temperature. Points the lockstep iterations
+     * leave with discrepancy above ACCEPTED_DISCREPANCY are solved again one by one, starting from
+     * where the batch stopped, so a few slow points do not hold up the whole batch.
+     */
+    private static List<PointResult> solveChlorides(ReactorModel model, String metal, Map<String, Double> pressure,
+                                                    double[] T, double delta) {
+        int n = model.size();
+        int points = T.length;
+        String[] chemicalAgent = new String[n];
+        double[] p = new double[n];
+        double[][] d = new double[n][points];
+        for (int i = 0; i < n; i++) {
+            chemicalAgent[i] = model.getGas(i);
+            p[i] = pressure.get(chemicalAgent[i]);
+            for (int k = 0; k < points; k++) {
+                d[i][k] = DataHolder.getD(chemicalAgent[i], T[k]);
             }
-        };
-        // G(Cl) = G(HCl) + G(GaCl) + 2 * G(GaCl2) + 3 * G(GaCl3) = 0
-        // D(HCl) * (Pg(HCl) - Pe(HCl)) + D(GaCl) * (Pg(GaCl) - Pe(GaCl)) + 2 * D(GaCl2) * (Pg(GaCl2) - Pe(GaCl2))
-        // + 3 * D(GaCl3) * (Pg(GaCl3) - Pe(GaCl3)) = 0
-        functions[4] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[1] * (p[1] - x[1]) + 2 * d[2] * (p[2] - x[2]) + 3 * d[3] * (p[3] - x[3]) + d[0] * (p[0] - x[0]);
+        }
+        double[] anchor = solveChlorides(model, metal, pressure, T[points / 2], delta, null).getSolution();
+        double[][] x = new double[n][points];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(x[i], anchor[i]);
+        }
+        BatchNewtonSolver solver = new BatchNewtonSolver(model.batch(T, p, d));
+        double[] lower = new double[n];
+        double[] upper = new double[n];
+        Arrays.fill(lower, -ALLOWED_DISCREPANCY);
+        Arrays.fill(upper, DataHolder.ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY);
+        solver.setBounds(lower, upper);
+        solver.solve(x, 1e-12, BATCH_ITERATIONS);
+        List<PointResult> results = new ArrayList<PointResult>(points);
+        for (int k = 0; k < points; k++) {
+            double[] solution = new double[n];
+            double[] dk = new double[n];
+            for (int i = 0; i < n; i++) {
+                solution[i] = x[i][k];
+                dk[i] = d[i][k];
             }
-        };
-        EquationSystem equationSystem = new EquationSystem(functions);
-        boolean correct = false;
-        double[] x = null;
-        while (!correct) {
-            x = equationSystem.universalMethod(1e-12, 1000000);
-            correct = true;
-            for (int i = 0; i < 5; i++) {
-                correct &= (x[i] >= -ALLOWED_DISCREPANCY && x[i] <= DataHolder.ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY);
+            if (solver.getDiscrepancy(k) > ACCEPTED_DISCREPANCY) {
+                results.add(solveChlorides(model, metal, pressure, T[k], delta, solution));
+            } else {
+                results.add(chlorideResult(metal, chemicalAgent, T[k], delta, solution, p, dk));
             }
         }
-        System.out.println("T = " + T);
-        out.println("T = " + T);
+        return results;
+    }
+
+    /**
+     * @param metal "Al" or "Ga"
+     * @param chemicalAgent HCl, MCl, MCl2, MCl3, H2
+     * @param x Pe of chemicalAgent
+     * @param p Pg of chemicalAgent
+     * @param d D of chemicalAgent
+     */
+    private static PointResult chlorideResult(String metal, String[] chemicalAgent, double T, double delta,
+                                              double[] x, double[] p, double[] d) {
+        PointResult result = new PointResult();
+        result.setSolution(x);
+        result.add("T", T);
         for (int i = 0; i < 5; i++) {
-            System.out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
-            out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
+            result.add("Pe(" + chemicalAgent[i] + ")", x[i]);
         }
         double[] g = new double[5];
         for (int i = 0; i < 5; i++) {
             g[i] = d[i] * (p[i] - x[i]) / (8314 * T * delta);
-            System.out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
-            out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
+            result.add("G(" + chemicalAgent[i] + ")", g[i]);
         }
-        double v = (g[1] + g[2] + g[3]) * (DataHolder.getDouble("mu", "Ga") / DataHolder.getDouble("density", "Ga")) * 1000000000;
-        System.out.println("Ve(Ga) = " + v);
-        out.println("Ve(Ga) = " + v);
+        double v = (g[1] + g[2] + g[3]) * (DataHolder.getDouble("mu", metal) / DataHolder.getDouble("density", metal)) * 1000000000;
+        result.add("Ve(" + metal + ")", v);
+        return result;
     }
 
-    public static void solveAlGaN(Map<String, Double> pressure, double T, double delta, PrintWriter out) {
-        final String[] chemicalAgent = new String[5];
-        chemicalAgent[0] = "HCl";
-        chemicalAgent[1] = "GaCl";
-        chemicalAgent[2] = "NH3";
-        chemicalAgent[3] = "AlCl3";
-        chemicalAgent[4] = "H2";
-        final double[] p = new double[5];
-        final double[] d = new double[5];
+    public static void solveAlGaN(Map<String, Double> pressure, double T, double delta, ResultSink sink) throws IOException {
+        sink.accept(solveAlGaN(pressure, T, delta));
+    }
+
+    public static PointResult solveAlGaN(Map<String, Double> pressure, double T, double delta) {
+        return solveAlGaN(pressure, T, delta, (double[]) null);
+    }
+
+    /**
+     * @param initial initial argument, random if null
+     */
+    public static PointResult solveAlGaN(Map<String, Double> pressure, double T, double delta, double[] initial) {
+        String[] chemicalAgent = new String[5];
+        double[] p = new double[5];
+        double[] d = new double[5];
         for (int i = 0; i < 5; i++) {
+            chemicalAgent[i] = AL_GA_N.getGas(i);
             p[i] = pressure.get(chemicalAgent[i]);
             d[i] = DataHolder.getD(chemicalAgent[i], T);
         }
-        final double k9 = DataHolder.getK(T, 9);
-        final double k10 = DataHolder.getK(T, 10);
-        // x[i] = Pe(chemicalAgent[i]), i = 0..4
-        // x[5] = x = G(AlCl3) / (G(AlCl3) + G(GaCl))
-        Function[] functions = new Function[6];
-        // AlCl3 + NH3 = AlN + 3 HCl
-        // Pe(AlCl3) * Pe(NH3) = K9 * x * Pe(HCl)^3
-        functions[0] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[3] * x[2] - k9 * x[5] * x[0] * x[0] * x[0];
-            }
-        };
-        // GaCl + NH3 = GaN + HCl + H2
-        // Pe(GaCl) * Pe(NH3) = K10 * (1 - x) * Pe(HCl) * Pe(H2)
-        functions[1] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return x[1] * x[2] - k10 * (1 - x[5]) * x[0] * x[4];
-            }
-        };
-        // G(H) = G(HCl) + 2 * G(H2) + 3 * G(NH3) = 0
-        // D(HCl) * (Pg(HCl) - Pe(HCl)) + 2 * D(H2) * (Pg(H2) - Pe(H2)) + 3 * D(NH3) * (Pg(NH3) - Pe(NH3))
-        functions[2] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[0] * (p[0] - x[0]) + 2 * d[4] * (p[4] - x[4]) + 3 * d[2] * (p[2] - x[2]);
-            }
-        };
-        // G(Cl) = 3 * G(AlCl3) + G(GaCl) + G(HCl) = 0
-        // 3 * D(AlCl3) * (Pg(AlCl3) - Pe(AlCl3)) + D(GaCl) * (Pg(GaCl) - Pe(GaCl)) + D(HCl) * (Pg(HCl) - Pe(HCl)) = 0
-        functions[3] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return 3 * d[3] * (p[3] - x[3]) + d[1] * (p[1] - x[1]) + d[0] * (p[0] - x[0]);
-            }
-        };
-        // G(Al) + G(Ga) = G(AlCl3) + G(GaCl) = G(NH3) = G(N)
-        // D(AlCl3) * (Pg(AlCl3) - Pe(AlCl3)) + D(GaCl) * (Pg(GaCl) - Pe(GaCl)) = D(NH3) * (Pg(NH3) - Pe(NH3))
-        functions[4] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[3] * (p[3] - x[3]) + d[1] * (p[1] - x[1]) - d[2] * (p[2] - x[2]);
-            }
-        };
-        // G(AlCl3) = x * (G(AlCl3) + G(GaCl))
-        // D(AlCl3) * (Pg(AlCl3) - Pe(AlCl3)) = x * (D(AlCl3) * (Pg(AlCl3) - Pe(AlCl3)) + D(GaCl) * (Pg(GaCl) - Pe(GaCl)))
-        functions[5] = new Function() {
-            @Override
-            public double calculate(double[] x) {
-                return d[3] * (p[3] - x[3]) - x[5] * (d[1] * (p[1] - x[1]) + d[3] * (p[3] - x[3]));
-            }
-        };
-        EquationSystem equationSystem = new EquationSystem(functions);
-        boolean correct = false;
-        double[] x = null;
-        while (!correct) {
-            x = equationSystem.universalMethod(1e-12, 1000000);
-            correct = true;
-            for (int i = 0; i < 5; i++) {
-                correct &= (x[i] >= -ALLOWED_DISCREPANCY && x[i] <= DataHolder.ATMOSPHERIC_PRESSURE + ALLOWED_DISCREPANCY);
-            }
-            correct &= (x[5] >= 0 && x[5] <= 1);
-        }
-        System.out.println("Pg(AlCl3) = " + pressure.get("AlCl3"));
-        out.println("Pg(AlCl3) = " + pressure.get("AlCl3"));
+        double[] x = solve(AL_GA_N, AL_GA_N.functions(T, p, d), initial);
+        PointResult result = new PointResult();
+        result.setSolution(x);
+        result.add("Pg(AlCl3)", pressure.get("AlCl3"));
         for (int i = 0; i < 5; i++) {
-            System.out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
-            out.println("Pe(" + chemicalAgent[i] + ") = " + x[i]);
+            result.add("Pe(" + chemicalAgent[i] + ")", x[i]);
         }
-        System.out.println("x = " + x[5]);
-        out.println("x = " + x[5]);
+        result.add("x", x[5]);
         double[] g = new double[5];
         for (int i = 0; i < 5; i++) {
             g[i] = d[i] * (p[i] - x[i]) / (8314 * T * delta);
-            System.out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
-            out.println("G(" + chemicalAgent[i] + ") = " + g[i]);
+            result.add("G(" + chemicalAgent[i] + ")", g[i]);
         }
         double v = (g[3] * (DataHolder.getDouble("mu", "AlN") / DataHolder.getDouble("density", "AlN"))
             + g[1] * (DataHolder.getDouble("mu", "GaN") / DataHolder.getDouble("density", "GaN"))) * 1000000000;
-        System.out.println("Vg(AlGaN) = " + v);
-        out.println("Vg(AlGaN) = " + v);
+        result.add("Vg(AlGaN)", v);
+        return result;
     }
 
-    public static Map<String, List<Double>> parseFile(String fileName) throws IOException {
-        Map<String, List<Double>> result = new HashMap<String, List<Double>>();
-        BufferedReader in = new BufferedReader(new FileReader(fileName));
-        String s;
-        while ((s = in.readLine()) != null) {
-            String[] strings = s.split(" ");
-            if (result.get(strings[0]) == null) {
-                result.put(strings[0], new ArrayList<Double>());
-            }
-            result.get(strings[0]).add(Double.parseDouble(strings[2]));
+    /**
+     * @param task output file name without extension
+     * @return sink echoing results to the console and writing them to task.out as text
+     * and to task.bin for reading back with {@link ResultCollector#readBinary}
+     */
+    private static ResultSink taskSink(String task) throws IOException {
+        return new TeeResultSink(TextResultSink.console(), new TextResultSink(task + ".out"),
+            new BinaryResultSink(task + ".bin"));
+    }
+
+    /**
+     * @return sink writing (1 / T, ln|value|) of every value to task_value.out
+     */
+    private static ResultSink arrheniusPlots(String task, String... names) throws IOException {
+        return new PlotSink(task + "_", ".out", PLOT_LOCALE, "%f\t%f\n",
+            "T", PlotSink.RECIPROCAL, PlotSink.LOG_ABS, names);
+    }
+
+    /**
+     * @return sink writing (Pg(AlCl3) / 30, value) of AlGaN growth values to task3_valuegases.out
+     */
+    private static ResultSink compositionPlots(String gases) throws IOException {
+        return new PlotSink("task3_", gases + ".out", PLOT_LOCALE, "%f\t%e\n",
+            "Pg(AlCl3)", PlotSink.scale(1.0 / 30), PlotSink.IDENTITY, "G(AlCl3)", "G(GaCl)", "Vg(AlGaN)", "x");
+    }
+
+    /**
+     * Streams the results of task.out into sink and closes it
+     */
+    private static void replot(String task, ResultSink sink) throws IOException {
+        try {
+            ResultFileReader.readText(task + ".out", sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    private static void printFit(ArrheniusFit fit, String... names) {
+        for (String name : names) {
+            System.out.println("Ea(" + name + ") = " + fit.getActivationEnergy(name));
         }
-        in.close();
-        return result;
     }
 
     public static void main(String[] args) throws IOException {
-        PrintWriter out;
+        ResultSink sink;
+        ArrheniusFit fit;
         Map<String, Double> pressure = new HashMap<String, Double>();
         pressure.put("HCl", 10000d);
         pressure.put("N2", 90000d);
@@ -305,94 +317,87 @@ public class Main {
         pressure.put("GaCl3", 0d);
         pressure.put("H2", 0d);
 
+        SweepEngine engine = new SweepEngine();
+        engine.setContinuation(true, true);
+        List<SweepPoint> grid;
+        double[] temperatures;
+
         // Task 1
         /*
-        out = new PrintWriter("task1.out");
+        fit = new ArrheniusFit("T", "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)");
+        sink = new TeeResultSink(taskSink("task1"), fit,
+            arrheniusPlots("task1", "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)"));
+        temperatures = new double[65 - 35 + 1];
         for (int i = 35; i <= 65; i++) {
-            double T = 10 * i + 273;
-            solveAlClx(pressure, T, 0.01, out);
+            temperatures[i - 35] = 10 * i + 273;
         }
-        out.close();/**/
+        for (PointResult result : solveAlClx(pressure, temperatures, 0.01)) {
+            sink.accept(result);
+        }
+        sink.close();
+        printFit(fit, "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)");/**/
 
         // Task 2
         /*
-        out = new PrintWriter("task2.out");
+        fit = new ArrheniusFit("T", "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)");
+        sink = new TeeResultSink(taskSink("task2"), fit,
+            arrheniusPlots("task2", "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)"));
+        temperatures = new double[95 - 65 + 1];
         for (int i = 65; i <= 95; i++) {
-            double T = 10 * i + 273;
-            solveGaClx(pressure, T, 0.01, out);
+            temperatures[i - 65] = 10 * i + 273;
+        }
+        for (PointResult result : solveGaClx(pressure, temperatures, 0.01)) {
+            sink.accept(result);
         }
-        out.close();/**/
+        sink.close();
+        printFit(fit, "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)");/**/
 
         // Task 3
         /*
-        out = new PrintWriter("task3_pure_N2.out");
+        SweepEngine.PointSolver alGaNSolver = new SweepEngine.PointSolver() {
+            @Override
+            public PointResult solve(SweepPoint point, double[] initial) {
+                return solveAlGaN(point.getPressure(), point.getT(), point.getDelta(), initial);
+            }
+        };
+        sink = new TeeResultSink(taskSink("task3_pure_N2"), compositionPlots("N2"));
         pressure.put("NH3", 1500d);
         pressure.put("HCl", 0d);
         System.out.println("Pure N2");
         pressure.put("N2", 98470d);
         pressure.put("H2", 0d);
+        grid = new ArrayList<SweepPoint>();
         for (int i = 0; i <= 30; i++) {
             pressure.put("AlCl3", (double)i);
             pressure.put("GaCl", (double)(30 - i));
-            solveAlGaN(pressure, 1100 + 273, 0.01, out);
+            grid.add(new SweepPoint(1100 + 273, pressure, 0.01));
         }
-        out.close();
-        out = new PrintWriter("task3_N2_H2.out");
+        engine.run(grid, alGaNSolver, sink);
+        sink.close();
+        sink = new TeeResultSink(taskSink("task3_N2_H2"), compositionPlots("N2_H2"));
         System.out.println("H2/N2 = 1/9");
         pressure.put("N2", 88623d);
         pressure.put("H2", 9847d);
+        grid = new ArrayList<SweepPoint>();
         for (int i = 0; i <= 30; i++) {
             pressure.put("AlCl3", (double)i);
             pressure.put("GaCl", (double)(30 - i));
-            solveAlGaN(pressure, 1100 + 273, 0.01, out);
+            grid.add(new SweepPoint(1100 + 273, pressure, 0.01));
         }
-        out.close();
+        engine.run(grid, alGaNSolver, sink);
+        sink.close();
         /**/
-        // Parsing results
-        Locale locale = new Locale("ru");
-        Map<String, List<Double>> resMap = parseFile("task1.out");
-        List<Double> t = resMap.get("T");
-        String[] valueNames = new String[] {"G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)"};
-        for (String valueName: valueNames) {
-            out = new PrintWriter("task1_" + valueName + ".out");
-            List<Double> values = resMap.get(valueName);
-            for (int i = 0; i < t.size(); i++) {
-                out.printf(locale, "%f\t%f\n", (1 / t.get(i)), Math.log(Math.abs(values.get(i))));
-            }
-            out.close();
-        }
-        resMap = parseFile("task2.out");
-        t = resMap.get("T");
-        valueNames = new String[] {"G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)"};
-        for (String valueName: valueNames) {
-            out = new PrintWriter("task2_" + valueName + ".out");
-            List<Double> values = resMap.get(valueName);
-            for (int i = 0; i < t.size(); i++) {
-                out.printf(locale, "%f\t%f\n", (1 / t.get(i)), Math.log(Math.abs(values.get(i))));
-            }
-            out.close();
-        }
-        resMap = parseFile("task3_pure_N2.out");
-        List<Double> PgAlCl3 = resMap.get("Pg(AlCl3)");
-        valueNames = new String[] {"G(AlCl3)", "G(GaCl)", "Vg(AlGaN)", "x"};
-        for (String valueName: valueNames) {
-            out = new PrintWriter("task3_" + valueName + "N2.out");
-            List<Double> values = resMap.get(valueName);
-            for (int i = 0; i < PgAlCl3.size(); i++) {
-                out.printf(locale, "%f\t%e\n", (PgAlCl3.get(i) / 30), values.get(i));
-            }
-            out.close();
-        }
-        resMap = parseFile("task3_N2_H2.out");
-        PgAlCl3 = resMap.get("Pg(AlCl3)");
-        valueNames = new String[] {"G(AlCl3)", "G(GaCl)", "Vg(AlGaN)", "x"};
-        for (String valueName: valueNames) {
-            out = new PrintWriter("task3_" + valueName + "N2_H2.out");
-            List<Double> values = resMap.get(valueName);
-            for (int i = 0; i < PgAlCl3.size(); i++) {
-                out.printf(locale, "%f\t%e\n", (PgAlCl3.get(i) / 30), values.get(i));
-            }
-            out.close();
-        }
+
+        // Plots and fits derived again from the task files
+        fit = new ArrheniusFit("T", "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)");
+        sink = new TeeResultSink(fit, arrheniusPlots("task1", "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)"));
+        replot("task1", sink);
+        printFit(fit, "G(AlCl)", "G(AlCl2)", "G(AlCl3)", "Ve(Al)");
+        fit = new ArrheniusFit("T", "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)");
+        sink = new TeeResultSink(fit, arrheniusPlots("task2", "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)"));
+        replot("task2", sink);
+        printFit(fit, "G(GaCl)", "G(GaCl2)", "G(GaCl3)", "Ve(Ga)");
+        replot("task3_pure_N2", compositionPlots("N2"));
+        replot("task3_N2_H2", compositionPlots("N2_H2"));
     }
 }
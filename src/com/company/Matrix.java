@@ -1,11 +1,10 @@
 package com.company;
 
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class Matrix {
+public class Matrix implements LinearOperator {
 
-    private static final Random random = RandomHolder.random;
 
     private static class InconsistentInputException extends Exception {
         public InconsistentInputException(String s) {
@@ -13,30 +12,59 @@ public class Matrix {
         }
     }
 
-    private static double scalarProduct(double[] a, double[] b) {
-        double result = 0;
-        for (int i = 0; i < a.length; i++) {
-            result += a[i] * b[i];
-        }
-        return result;
-    }
-
     private int n;
-    private double[][] a;
+    /** Row-major n x n elements */
+    private double[] a;
 
     private double norm = -1;
+    /** Engine of the last {@link #jacobiMethod} call */
+    private StationaryIteration iteration = null;
 
     public Matrix(int size) {
         n = size;
-        a = new double[n][n];
+        a = new double[n * n];
     }
 
+    /**
+     * @param m matrix rows, copied
+     */
     public Matrix(double[][] m) {
         n = m.length;
-        a = m;
+        a = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(m[i], 0, a, i * n, n);
+        }
     }
 
+    /**
+     * @param size matrix size
+     * @param values row-major size x size elements, used without copying
+     */
+    public Matrix(int size, double[] values) {
+        if (values.length != size * size) {
+            throw new IllegalArgumentException("Expected " + size * size + " values, got " + values.length);
+        }
+        n = size;
+        a = values;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return row-major elements backing this matrix
+     */
+    double[] getValues() {
+        return a;
+    }
+
+    /**
+     * Called by the fill methods after they change the elements
+     */
     private void solutionsFill(double[] b, int min, int max) {
+        norm = -1;
+        SplittableRandom random = RandomHolder.current();
         int[] solutions = new int[n];
         for (int i = 0; i < solutions.length; ++i) {
             solutions[i] = random.nextInt(max - min + 1) + min;
@@ -44,27 +72,29 @@ public class Matrix {
         for (int i = 0; i < n; ++i) {
             b[i] = 0;
             for (int j = 0; j < n; ++j) {
-                b[i] += a[i][j] * solutions[j];
+                b[i] += a[i * n + j] * solutions[j];
             }
         }
     }
 
     public void randomFill(double[] b, int min, int max) {
+        SplittableRandom random = RandomHolder.current();
         for (int i = 0; i < n; ++i) {
             for (int j = 0; j < n; ++j) {
-                a[i][j] = random.nextInt(max - min + 1) + min;
+                a[i * n + j] = random.nextInt(max - min + 1) + min;
             }
         }
         solutionsFill(b, min, max);
     }
 
     public void diagonalFill(double[] b, int min, int max) {
+        SplittableRandom random = RandomHolder.current();
         for (int i = 0; i < n; ++i) {
             for (int j = 0; j < n; ++j) {
                 if (i == j) {
-                    a[i][j] = random.nextInt(max - min + 1) + min;
+                    a[i * n + j] = random.nextInt(max - min + 1) + min;
                 } else {
-                    a[i][j] = 0;
+                    a[i * n + j] = 0;
                 }
             }
         }
@@ -74,20 +104,21 @@ public class Matrix {
     public void hilbertFill(double[] b, int min, int max) {
         for (int i = 0; i < n; ++i) {
             for (int j = 0; j < n; ++j) {
-                a[i][j] = 1.0 / (i + j + 1.0);
+                a[i * n + j] = 1.0 / (i + j + 1.0);
             }
         }
         solutionsFill(b, min, max);
     }
 
     public void diagonalDominanceFill(double[] b, int min, int max, int dominanceKoef) {
+        SplittableRandom random = RandomHolder.current();
         for (int i = 0; i < n; i++) {
             double sum = 0;
             for (int j = 0; j < n; j++) {
-                a[i][j] = random.nextInt(max - min + 1) + min;
-                sum += Math.abs(a[i][j]);
+                a[i * n + j] = random.nextInt(max - min + 1) + min;
+                sum += Math.abs(a[i * n + j]);
             }
-            a[i][i] = (1 - 2 * random.nextInt(2)) * (dominanceKoef * sum + 1);
+            a[i * n + i] = (1 - 2 * random.nextInt(2)) * (dominanceKoef * sum + 1);
         }
         solutionsFill(b, min, max);
     }
@@ -97,7 +128,7 @@ public class Matrix {
             for (int i = 0; i < n; ++i) {
                 double sum = 0;
                 for (int j = 0; j < n; ++j) {
-                    sum += Math.abs(a[i][j]);
+                    sum += Math.abs(a[i * n + j]);
                 }
                 if (norm < sum) {
                     norm = sum;
@@ -110,9 +141,7 @@ public class Matrix {
     public double[][] getMatrixCopy() {
         double[][] result = new double[n][n];
         for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                result[i][j] = a[i][j];
-            }
+            System.arraycopy(a, i * n, result[i], 0, n);
         }
         return result;
     }
@@ -121,12 +150,12 @@ public class Matrix {
         for (int i = 0; i < n; ++i) {
             double sum = 0;
             for (int j = 0; j < i; ++j) {
-                sum += Math.abs(a[i][j]);
+                sum += Math.abs(a[i * n + j]);
             }
             for (int j = i + 1; j < n; j++) {
-                sum += Math.abs(a[i][j]);
+                sum += Math.abs(a[i * n + j]);
             }
-            if (sum >= Math.abs(a[i][i])) {
+            if (sum >= Math.abs(a[i * n + i])) {
                 return false;
             }
         }
@@ -135,24 +164,60 @@ public class Matrix {
 
     public double[] transform(double[] vector) {
         double[] result = new double[n];
+        apply(vector, result);
+        return result;
+    }
+
+    public double[] transposeTransform(double[] vector) {
+        double[] result = new double[n];
+        applyTranspose(vector, result);
+        return result;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y) {
+        if (n >= DenseKernels.BLOCKED_SIZE) {
+            DenseKernels.multiply(a, n, x, y);
+            return;
+        }
         for (int i = 0; i < n; i++) {
-            result[i] = 0;
+            y[i] = 0;
             for (int j = 0; j < n; j++) {
-                result[i] += a[i][j] * vector[j];
+                y[i] += a[i * n + j] * x[j];
             }
         }
-        return result;
     }
 
-    public double[] transposeTransform(double[] vector) {
-        double[] result = new double[n];
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        if (n >= DenseKernels.BLOCKED_SIZE) {
+            DenseKernels.transposeMultiply(a, n, x, y);
+            return;
+        }
         for (int i = 0; i < n; i++) {
-            result[i] = 0;
+            y[i] = 0;
             for (int j = 0; j < n; j++) {
-                result[i] += a[j][i] * vector[j];
+                y[i] += a[j * n + i] * x[j];
             }
         }
-        return result;
+    }
+
+    /**
+     * @return A^T A
+     */
+    public Matrix normalMatrix() {
+        if (n >= DenseKernels.BLOCKED_SIZE) {
+            return new Matrix(n, DenseKernels.gram(a, n));
+        }
+        double[][] sym = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < n; k++) {
+                    sym[i][j] += a[k * n + i] * a[k * n + j];
+                }
+            }
+        }
+        return new Matrix(sym);
     }
 
     public double[] g(double[] b, double[] vector) {
@@ -163,34 +228,29 @@ public class Matrix {
         return result;
     }
 
+    /**
+     * Jacobi or multicolour Gauss-Seidel iterations from a random approximation, run by
+     * {@link #getStationaryIteration()}, which also reports how the solve went.
+     * Iterations stop when the change bound guarantees epsilon precision for a contraction.
+     * @throws InconsistentInputException if a diagonal element is zero, whatever check is; iterations
+     * divide by the diagonal, so they could only produce NaN. With check, also if convergence is not guaranteed
+     */
     public double[] jacobiMethod(double[] b, long maxIterations, double epsilon,
                                  boolean zeidelMod, double relaxation, boolean check) throws InconsistentInputException {
-        double[][] b1 = new double[n][n];
-        double[][] b2 = new double[n][n];
-
-        double[] d = new double[n];
-
         for (int i = 0; i < n; ++i) {
-            for (int j = 0; j < i; j++) {
-                b2[i][j] = -a[i][j] / a[i][i];
-            }
-            if (zeidelMod) {
-                for (int j = i + 1; j < n; j++) {
-                    b1[i][j] = -a[i][j] / a[i][i];
-                }
-            } else {
-                for (int j = i + 1; j < n; j++) {
-                    b2[i][j] = -a[i][j] / a[i][i];
-                }
+            if (a[i * n + i] == 0) {
+                /** thrown even without check **/
+                throw new InconsistentInputException("Zero diagonal element in row " + i + "\n");
             }
-            d[i] = b[i] / a[i][i];
         }
+        /** built from the current elements on every call, they may have been changed in place **/
+        iteration = new StationaryIteration(SparseMatrix.fromDense(this));
 
         double major;
 
         /** Check consistency **/
         if (!zeidelMod) {
-            double q = new Matrix(b2).getNorm();
+            double q = iteration.getJacobiNorm();
 
             major = epsilon * (1 - q) / q;
             if (check) {
@@ -202,8 +262,10 @@ public class Matrix {
                 }
             }
         } else {
-            double q1 = new Matrix(b1).getNorm();
-            double q2 = new Matrix(b2).getNorm();
+            /** parts of B using new and old values in the colour order of the sweeps **/
+            double[] norms = iteration.getSeidelNorms();
+            double q1 = norms[0];
+            double q2 = norms[1];
             if (q2 != 0) {
                 major = epsilon * (1 - q1) / q2;
             } else {
@@ -216,39 +278,50 @@ public class Matrix {
             }
         }
 
-        int prev = 0;
-        double[][] x = new double[2][n];
+        double[] x = new double[n];
+        SplittableRandom random = RandomHolder.current();
         for (int i = 0; i < n; ++i) {
-            x[prev][i] = random.nextDouble();
+            x[i] = random.nextDouble();
         }
+        iteration.solve(zeidelMod ? StationaryIteration.Method.GAUSS_SEIDEL : StationaryIteration.Method.JACOBI,
+            b, x, maxIterations, major, relaxation);
+        return x;
+    }
 
-        for (long k = 0; k < maxIterations; ++k) {
-            int next = (prev + 1) % 2;
-            for (int i = 0; i < n; ++i) {
-                double value = d[i];
-                for (int j = 0; j < n; ++j) {
-                    value += b1[i][j] * x[next][j] + b2[i][j] * x[prev][j];
-                }
-                x[next][i] = value;
-            }
-            double max = Math.abs(x[next][0] - x[prev][0]);
-            for (int i = 0; i < n; i++) {
-                x[next][i] = relaxation * x[next][i] + (1 - relaxation) * x[prev][i];
-                if (Math.abs(x[next][i] - x[prev][i]) > max) {
-                    max = Math.abs(x[next][i] - x[prev][i]);
-                }
-            }
-            prev = next;
-            if (max < major) break;
-        }
+    /**
+     * @return engine of the last {@link #jacobiMethod} call, built from the elements at that time; it
+     * reports iterations, the last change and the convergence rate. Null before the first call
+     */
+    public StationaryIteration getStationaryIteration() {
+        return iteration;
+    }
 
-        return x[prev];
+    /**
+     * @return LU decomposition of this matrix, see {@link LUDecomposition}
+     */
+    public LUDecomposition lu() {
+        return new LUDecomposition(this);
     }
 
+    /**
+     * Reference solver with complete pivoting. Prefer {@link #lu()} for speed or several right sides.
+     */
     public double[] gaussMethod(double[] vector) {
-        double[][] a = getMatrixCopy();
-        double[] b = vector.clone();
-        int[] order = new int[n];
+        double[] solution = new double[n];
+        gaussMethod(getMatrixCopy(), vector.clone(), new int[n], new double[n], solution);
+        return solution;
+    }
+
+    /**
+     * Allocation-free Gauss method with complete pivoting. Destroys a and b.
+     * @param a matrix rows, rows are swapped and overwritten
+     * @param b constants vector, overwritten
+     * @param order buffer of size n
+     * @param v buffer of size n
+     * @param solution array to be filled with the solution
+     */
+    public static void gaussMethod(double[][] a, double[] b, int[] order, double[] v, double[] solution) {
+        int n = a.length;
         for (int i = 0; i < n; i++) {
             order[i] = i;
         }
@@ -297,7 +370,6 @@ public class Matrix {
             }
         }
 
-        double[] v = new double[n];
         for (int i = n - 1; i >= 0; --i) {
             double sum = 0.0;
             for (int j = i + 1; j < n; ++j) {
@@ -305,54 +377,31 @@ public class Matrix {
             }
             v[i] = (b[i] - sum) / a[i][i];
         }
-        double[] solution = new double[n];
         for (int i = 0; i < n; i++) {
             solution[order[i]] = v[i];
         }
-        return solution;
     }
 
-    private double[] conjugateGradientsMethod(double[] b, long r) {
-        double[][] sym = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                for (int k = 0; k < n; k++) {
-                    sym[i][j] += a[k][i] * a[k][j];
-                }
-            }
-        }
-        Matrix m = new Matrix(sym);
-        b = transposeTransform(b);
+    /**
+     * Least squares solution by conjugate gradients on the normal equations A^T A x = A^T b,
+     * applying A and A^T to vectors instead of forming A^T A, see {@link KrylovSolver.Method#CGNR}
+     * @param b constants vector
+     * @param epsilon bound of |b - Ax| / |b|
+     * @param maxIterations maximum iterations count
+     * @return solution, the last approximation if the bound was not reached
+     */
+    public double[] conjugateGradientsMethod(double[] b, double epsilon, long maxIterations) {
+        KrylovSolver solver = new KrylovSolver(n, KrylovSolver.Method.CGNR);
+        solver.setTolerance(epsilon);
+        solver.setMaxIterations(maxIterations);
+        solver.setPreconditioner(KrylovSolver.jacobi(this, KrylovSolver.Method.CGNR));
         double[] x = new double[n];
-        for (int i = 0; i < n; i++) {
-            x[i] = random.nextDouble();
-        }
-        double[] p = m.g(b, x);
-        for (int i = 0; i < n; i++) {
-            p[i] *= -1;
-        }
-        /** With precise float operations it should give correct answer after n iterations.
-         *  However, we take r rounds of n iterations to be sure. */
-        for (int t = 0; t < n * r; t++) {
-            double[] Ap = m.transform(p);
-            double Apxp = scalarProduct(Ap, p);
-            if (Apxp == 0) break;
-            double[] g = m.g(b, x);
-            double alpha = -scalarProduct(g, p) / Apxp;
-            for (int i = 0; i < n; i++) {
-                x[i] += alpha * p[i];
-            }
-            g = m.g(b, x);
-            double beta = scalarProduct(Ap, g) / Apxp;
-            for (int i = 0; i < n; i++) {
-                p[i] = -g[i] + beta * p[i];
-            }
-        }
+        solver.solve(this, b, x);
         return x;
     }
 
     public double get(int i, int j) {
-        return this.a[i][j];
+        return this.a[i * n + j];
     }
 }
 
@@ -0,0 +1,164 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs several {@link EquationSystem#universalMethod} starts at once and takes the first acceptable answer.
+ * Remaining starts are cancelled by interruption. If no start of a round is accepted, the next round
+ * starts from new random points.
+ */
+public class MultiStartSolver {
+
+    /**
+     * Decides whether an answer of one start is good enough to stop the others.
+     */
+    public interface Acceptance {
+        boolean accept(EquationSystem system, double[] x);
+    }
+
+    /**
+     * Accepts answers with discrepancy not greater than tolerance
+     * @param tolerance maximum discrepancy
+     * @return acceptance
+     */
+    public static Acceptance discrepancyBelow(final double tolerance) {
+        return new Acceptance() {
+            @Override
+            public boolean accept(EquationSystem system, double[] x) {
+                return system.discrepancy(x) <= tolerance;
+            }
+        };
+    }
+
+    private final EquationSystem system;
+    private final int starts;
+    private final int maxRounds;
+    private final ExecutorService executor;
+    private boolean deterministic = false;
+
+    /**
+     * Uses the common fork/join pool
+     * @param system system to solve, copied for every start
+     * @param starts starts per round
+     * @param maxRounds rounds of starts to try before giving up
+     */
+    public MultiStartSolver(EquationSystem system, int starts, int maxRounds) {
+        this(system, starts, maxRounds, ForkJoinPool.commonPool());
+    }
+
+    public MultiStartSolver(EquationSystem system, int starts, int maxRounds, ExecutorService executor) {
+        if (starts < 1 || maxRounds < 1) {
+            throw new IllegalArgumentException("Need at least one start and one round");
+        }
+        this.system = system;
+        this.starts = starts;
+        this.maxRounds = maxRounds;
+        this.executor = executor;
+    }
+
+    /**
+     * @param deterministic true to take, among accepted answers, the one of the earliest start, so the
+     * result does not depend on timing; later finishing starts with lower numbers are then waited for.
+     * False by default: the first answer accepted wins at once
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * Starts get their own random streams split from the generator of the calling thread.
+     * @param eps precision of every start, see {@link EquationSystem#universalMethod}
+     * @param maxIterations maximum iterations of every start
+     * @param initial initial argument of the first start of the first round, random if null
+     * @param acceptance acceptance of answers
+     * @return accepted answer, the first one or, if deterministic, that of the earliest start;
+     * null if no start of any round was accepted
+     * @throws CancellationException if the calling thread was interrupted, its interrupt flag is set again
+     */
+    public double[] solve(final double eps, final long maxIterations, double[] initial, Acceptance acceptance) {
+        SplittableRandom seeds = RandomHolder.current();
+        for (int round = 0; round < maxRounds; round++) {
+            ExecutorCompletionService<double[]> completion = new ExecutorCompletionService<double[]>(executor);
+            List<Future<double[]>> futures = new ArrayList<Future<double[]>>(starts);
+            for (int k = 0; k < starts; k++) {
+                final double[] start = round == 0 && k == 0 ? initial : null;
+                final SplittableRandom random = seeds.split();
+                futures.add(completion.submit(new Callable<double[]>() {
+                    @Override
+                    public double[] call() {
+                        EquationSystem copy = system.copy(SolverWorkspace.forCurrentThread(system.size()));
+                        return copy.universalMethod(eps, maxIterations, start, random);
+                    }
+                }));
+            }
+            try {
+                double[] answer = take(completion, futures, acceptance);
+                if (answer != null) {
+                    return answer;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Multi-start solve interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Solver start failed", e.getCause());
+            } finally {
+                for (Future<double[]> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the starts of one round until an answer wins
+     * @return winning answer, null if no start was accepted
+     */
+    private double[] take(ExecutorCompletionService<double[]> completion, List<Future<double[]>> futures,
+                          Acceptance acceptance) throws InterruptedException, ExecutionException {
+        double[][] answers = new double[starts][];
+        boolean[] done = new boolean[starts];
+        int winner = starts;
+        for (int taken = 0; taken < starts; taken++) {
+            Future<double[]> future = completion.take();
+            int k = futures.indexOf(future);
+            done[k] = true;
+            if (future.isCancelled()) {
+                continue;
+            }
+            answers[k] = future.get();
+            if (k < winner && acceptance.accept(system, answers[k])) {
+                if (!deterministic) {
+                    return answers[k];
+                }
+                winner = k;
+                /** later starts cannot win any more **/
+                for (int j = k + 1; j < starts; j++) {
+                    futures.get(j).cancel(true);
+                }
+            }
+            if (winner < starts && allDone(done, winner)) {
+                return answers[winner];
+            }
+        }
+        return null;
+    }
+
+    private static boolean allDone(boolean[] done, int count) {
+        for (int k = 0; k < count; k++) {
+            if (!done[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Writes (x, y) plot data of several values as results arrive, one file per value:
+ * prefix + value name + suffix. x is a transform of one chosen value, y of the plotted value.
+ */
+public class PlotSink implements ResultSink {
+
+    /**
+     * Transform of a value before it is plotted
+     */
+    public interface Transform {
+        double apply(double value);
+    }
+
+    public final static Transform IDENTITY = new Transform() {
+        @Override
+        public double apply(double value) {
+            return value;
+        }
+    };
+
+    public final static Transform RECIPROCAL = new Transform() {
+        @Override
+        public double apply(double value) {
+            return 1 / value;
+        }
+    };
+
+    /** ln|value|, y of Arrhenius plots **/
+    public final static Transform LOG_ABS = new Transform() {
+        @Override
+        public double apply(double value) {
+            return Math.log(Math.abs(value));
+        }
+    };
+
+    public static Transform scale(final double factor) {
+        return new Transform() {
+            @Override
+            public double apply(double value) {
+                return value * factor;
+            }
+        };
+    }
+
+    private final Locale locale;
+    private final String format;
+    private final String xName;
+    private final Transform x;
+    private final Transform y;
+    private final String[] yNames;
+    private final PrintWriter[] out;
+    private int xColumn = -1;
+    private int[] yColumns = null;
+
+    /**
+     * @param prefix file name before the value name
+     * @param suffix file name after the value name
+     * @param locale locale of numbers
+     * @param format format of a line, e.g. "%f\t%f\n"
+     * @param xName value on the x axis
+     * @param x transform of the x value
+     * @param y transform of the plotted values
+     * @param yNames plotted values
+     */
+    public PlotSink(String prefix, String suffix, Locale locale, String format,
+                    String xName, Transform x, Transform y, String... yNames) throws IOException {
+        this.locale = locale;
+        this.format = format;
+        this.xName = xName;
+        this.x = x;
+        this.y = y;
+        this.yNames = yNames.clone();
+        out = new PrintWriter[yNames.length];
+        try {
+            for (int i = 0; i < yNames.length; i++) {
+                out[i] = new PrintWriter(new BufferedWriter(new FileWriter(prefix + yNames[i] + suffix)));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(PointResult result) throws IOException {
+        if (yColumns == null) {
+            xColumn = column(result, xName);
+            yColumns = new int[yNames.length];
+            for (int i = 0; i < yNames.length; i++) {
+                yColumns[i] = column(result, yNames[i]);
+            }
+        }
+        double xValue = x.apply(result.getValue(xColumn));
+        for (int i = 0; i < out.length; i++) {
+            out[i].printf(locale, format, xValue, y.apply(result.getValue(yColumns[i])));
+        }
+    }
+
+    /**
+     * @return index of the value called name in result
+     */
+    static int column(PointResult result, String name) {
+        for (int i = 0; i < result.size(); i++) {
+            if (result.getName(i).equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No value " + name + " in result");
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (PrintWriter writer : out) {
+            if (writer != null) {
+                writer.close();
+                if (writer.checkError() && failure == null) {
+                    failure = new IOException("Cannot write plot data");
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
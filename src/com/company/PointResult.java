@@ -0,0 +1,62 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Named values computed for one sweep point, kept in the order they were added.
+ */
+public class PointResult {
+
+    private final List<String> names = new ArrayList<String>();
+    private final List<Double> values = new ArrayList<Double>();
+    private double[] solution;
+
+    public void add(String name, double value) {
+        names.add(name);
+        values.add(value);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String getName(int i) {
+        return names.get(i);
+    }
+
+    public double getValue(int i) {
+        return values.get(i);
+    }
+
+    public String[] getNames() {
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * @param names value names
+     * @return true if this result has exactly these values in this order
+     */
+    public boolean hasNames(String[] names) {
+        if (names.length != this.names.size()) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (!names[i].equals(this.names.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return solution of the underlying equation system, or null if not set
+     */
+    public double[] getSolution() {
+        return solution;
+    }
+
+    public void setSolution(double[] solution) {
+        this.solution = solution;
+    }
+}
@@ -0,0 +1,14 @@
+package com.company;
+
+/**
+ * Approximate inverse M^-1 applied by {@link KrylovSolver}
+ */
+public interface Preconditioner {
+
+    /**
+     * z = M^-1 r
+     * @param r residual, not changed
+     * @param z array to be filled with the preconditioned residual, must not be r
+     */
+    void apply(double[] r, double[] z);
+}
@@ -1,7 +1,63 @@
 package com.company;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * Random streams derived from one master seed. Every thread has its own generator, so there is
+ * no shared seed to contend for, and a thread can switch to a numbered stream with {@link #reseed},
+ * which makes results independent of which thread did the work.
+ * The master seed is taken from the "algan.seed" system property, or from the clock if it is not set.
+ */
 public class RandomHolder {
-    public final static Random random = new Random(System.currentTimeMillis());
+
+    private static volatile long masterSeed = Long.getLong("algan.seed", System.currentTimeMillis());
+
+    private final static ThreadLocal<SplittableRandom> perThread = new ThreadLocal<SplittableRandom>() {
+        @Override
+        protected SplittableRandom initialValue() {
+            return forStream(Thread.currentThread().getId());
+        }
+    };
+
+    /**
+     * Changes the master seed. Threads keep their current generators until {@link #reseed}.
+     * @param seed master seed
+     */
+    public static void setSeed(long seed) {
+        masterSeed = seed;
+    }
+
+    public static long getSeed() {
+        return masterSeed;
+    }
+
+    /**
+     * @param stream stream number, e.g. index of a sweep point
+     * @return new generator, the same for the same master seed and stream number
+     */
+    public static SplittableRandom forStream(long stream) {
+        return new SplittableRandom(mix(masterSeed + 0x9e3779b97f4a7c15L * (stream + 1)));
+    }
+
+    /**
+     * @return generator of the current thread
+     */
+    public static SplittableRandom current() {
+        return perThread.get();
+    }
+
+    /**
+     * Replaces the generator of the current thread with stream number stream
+     * @param stream stream number
+     */
+    public static void reseed(long stream) {
+        perThread.set(forStream(stream));
+    }
+
+    /** MurmurHash3 finalizer, spreads neighbouring stream numbers over the seed space **/
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
 }
@@ -0,0 +1,203 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of reactions compiled against a {@link SpeciesTable}.
+ * Reaction "a A + b B = c C + d D" has stoichiometry +a, +b for reactants and -c, -d for products,
+ * K = exp(-sum(nu * G) / (R * T)) * P_atm ^ (sum of gas nu).
+ */
+public final class ReactionNetwork {
+
+    private final SpeciesTable table;
+    private final String[] reactions;
+    /** Table indices of species used by any reaction */
+    private final int[] species;
+    /** reactions x species stoichiometry, row-major */
+    private final double[] stoichiometry;
+    /** Terms of reaction r are termStart[r]..termStart[r + 1] - 1, in the order they are written */
+    private final int[] termStart;
+    private final int[] termSpecies;
+    private final double[] termCoefficient;
+    /** Exponent of P_atm in K */
+    private final int[] pressureExponent;
+
+    /**
+     * @param table species data
+     * @param reactions reactions such as "2 HCl + 2 Al = 2 AlCl + H2"
+     */
+    public ReactionNetwork(SpeciesTable table, String... reactions) {
+        this.table = table;
+        this.reactions = reactions.clone();
+        List<Integer> species = new ArrayList<Integer>();
+        List<Integer> termSpecies = new ArrayList<Integer>();
+        List<Double> termCoefficient = new ArrayList<Double>();
+        termStart = new int[reactions.length + 1];
+        pressureExponent = new int[reactions.length];
+        for (int r = 0; r < reactions.length; r++) {
+            String[] sides = reactions[r].split("=");
+            if (sides.length != 2) {
+                throw new IllegalArgumentException("Reaction must have exactly one '=': " + reactions[r]);
+            }
+            termStart[r] = termSpecies.size();
+            for (int side = 0; side < 2; side++) {
+                for (String term : sides[side].split("\\+")) {
+                    term = term.trim();
+                    int i = 0;
+                    while (i < term.length() && (Character.isDigit(term.charAt(i)) || term.charAt(i) == '.')) {
+                        i++;
+                    }
+                    double coefficient = i == 0 ? 1 : Double.parseDouble(term.substring(0, i));
+                    int s = table.indexOf(term.substring(i).trim());
+                    if (!species.contains(s)) {
+                        species.add(s);
+                    }
+                    double nu = side == 0 ? coefficient : -coefficient;
+                    termSpecies.add(species.indexOf(s));
+                    termCoefficient.add(nu);
+                    if (table.isGas(s)) {
+                        if (nu != Math.rint(nu)) {
+                            throw new IllegalArgumentException("Fractional gas coefficient: " + reactions[r]);
+                        }
+                        pressureExponent[r] += (int) nu;
+                    }
+                }
+            }
+        }
+        termStart[reactions.length] = termSpecies.size();
+        this.species = new int[species.size()];
+        for (int i = 0; i < this.species.length; i++) {
+            this.species[i] = species.get(i);
+        }
+        this.termSpecies = new int[termSpecies.size()];
+        this.termCoefficient = new double[termSpecies.size()];
+        stoichiometry = new double[reactions.length * this.species.length];
+        for (int r = 0; r < reactions.length; r++) {
+            for (int t = termStart[r]; t < termStart[r + 1]; t++) {
+                this.termSpecies[t] = termSpecies.get(t);
+                this.termCoefficient[t] = termCoefficient.get(t);
+                stoichiometry[r * this.species.length + this.termSpecies[t]] += this.termCoefficient[t];
+            }
+        }
+    }
+
+    public int size() {
+        return reactions.length;
+    }
+
+    public String getReaction(int r) {
+        return reactions[r];
+    }
+
+    /**
+     * @param r reaction index
+     * @param chemicalAgent species name
+     * @return stoichiometric coefficient, positive for reactants, negative for products
+     */
+    public double getStoichiometry(int r, String chemicalAgent) {
+        int s = table.indexOf(chemicalAgent);
+        for (int i = 0; i < species.length; i++) {
+            if (species[i] == s) {
+                return stoichiometry[r * species.length + i];
+            }
+        }
+        return 0;
+    }
+
+    public int getPressureExponent(int r) {
+        return pressureExponent[r];
+    }
+
+    /**
+     * @return buffer for {@link #evaluate(double, double[], double[], double[])}
+     */
+    public double[] newSpeciesBuffer() {
+        return new double[species.length];
+    }
+
+    /**
+     * Computes G(T) of every used species once, then dG and K of every reaction.
+     * @param T temperature
+     * @param g buffer of {@link #newSpeciesBuffer()} size
+     * @param dG array to be filled with sum(nu * G) per reaction, may be null
+     * @param k array to be filled with equilibrium constants, may be null
+     */
+    public void evaluate(double T, double[] g, double[] dG, double[] k) {
+        for (int i = 0; i < species.length; i++) {
+            g[i] = table.getG(species[i], T);
+        }
+        combine(T, g, null, dG, k);
+    }
+
+    /**
+     * Same as {@link #evaluate(double, double[], double[], double[])} when G(T) of every species of the
+     * table is already known, so none is computed again
+     * @param T temperature
+     * @param tableG G(T) by {@link SpeciesTable} index, not changed
+     * @param dG array to be filled with sum(nu * G) per reaction, may be null
+     * @param k array to be filled with equilibrium constants, may be null
+     */
+    public void evaluateFromTable(double T, double[] tableG, double[] dG, double[] k) {
+        combine(T, tableG, species, dG, k);
+    }
+
+    /**
+     * @param g G of the used species, by table index if index is species, by position in species if it is null
+     */
+    private void combine(double T, double[] g, int[] index, double[] dG, double[] k) {
+        for (int r = 0; r < reactions.length; r++) {
+            double sum = 0;
+            for (int t = termStart[r]; t < termStart[r + 1]; t++) {
+                sum += termCoefficient[t] * g[index == null ? termSpecies[t] : index[termSpecies[t]]];
+            }
+            if (dG != null) {
+                dG[r] = sum;
+            }
+            if (k != null) {
+                k[r] = pressureScale(Math.exp(-sum / (DataHolder.R * T)), pressureExponent[r]);
+            }
+        }
+    }
+
+    /**
+     * @param T temperature
+     * @return equilibrium constants of all reactions
+     */
+    public double[] getK(double T) {
+        double[] k = new double[reactions.length];
+        evaluate(T, newSpeciesBuffer(), null, k);
+        return k;
+    }
+
+    /**
+     * @param T temperatures
+     * @param k array of T.length * size() to be filled, k[t * size() + r] = K of reaction r at T[t]
+     */
+    public void getK(double[] T, double[] k) {
+        double[] g = newSpeciesBuffer();
+        double[] row = new double[reactions.length];
+        for (int t = 0; t < T.length; t++) {
+            evaluate(T[t], g, null, row);
+            System.arraycopy(row, 0, k, t * reactions.length, reactions.length);
+        }
+    }
+
+    /**
+     * @param T temperature
+     * @param r reaction index
+     * @return equilibrium constant of reaction r only
+     */
+    public double getK(double T, int r) {
+        double sum = 0;
+        for (int t = termStart[r]; t < termStart[r + 1]; t++) {
+            sum += termCoefficient[t] * table.getG(species[termSpecies[t]], T);
+        }
+        return pressureScale(Math.exp(-sum / (DataHolder.R * T)), pressureExponent[r]);
+    }
+
+    private static double pressureScale(double k, int exponent) {
+        double scale = Math.pow(DataHolder.ATMOSPHERIC_PRESSURE, Math.abs(exponent));
+        return exponent >= 0 ? k * scale : k / scale;
+    }
+}
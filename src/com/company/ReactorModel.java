@@ -0,0 +1,751 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Equilibrium of gases with a surface, described by species, heterogeneous reactions and flux balances.
+ * Unknowns are Pe of the gases followed by compositions of solid solutions.
+ * Equations, in the order they are declared:
+ * <ul>
+ * <li>reaction "a A + b B = c C + d D": Pe(A)^a * Pe(B)^b = K * Pe(C)^c * Pe(D)^d, condensed species
+ * have activity 1 or, inside a solid solution, x and 1 - x;</li>
+ * <li>balance "E" or "E1 + E2 = E3": sum over gases of (atoms of the elements) * G(gas) = 0,
+ * with G(gas) proportional to D(gas) * (Pg(gas) - Pe(gas));</li>
+ * <li>fraction x of E in E1 + E2: G(E) = x * (G(E1) + G(E2)).</li>
+ * </ul>
+ * Everything except Pe is resolved when the model is built, so generated functions only do arithmetic.
+ */
+public class ReactorModel {
+
+    private final static Pattern ELEMENT = Pattern.compile("([A-Z][a-z]?)(\\d*)");
+
+    public static class Builder {
+        private final List<String> gases = new ArrayList<String>();
+        private final List<String> fractions = new ArrayList<String>();
+        /** condensed species -> {variable name, 1 for x or -1 for 1 - x} **/
+        private final Map<String, Object[]> activities = new HashMap<String, Object[]>();
+        private final List<String> reactions = new ArrayList<String>();
+        private final List<String> balances = new ArrayList<String>();
+        private final List<String[]> compositions = new ArrayList<String[]>();
+
+        /**
+         * @param names gases whose Pe are unknowns, in this order
+         */
+        public Builder gas(String... names) {
+            gases.addAll(Arrays.asList(names));
+            return this;
+        }
+
+        /**
+         * Solid solution of first and second with unknown composition variable, activities of first
+         * and second are variable and 1 - variable
+         */
+        public Builder solidSolution(String variable, String first, String second) {
+            fractions.add(variable);
+            activities.put(first, new Object[] {variable, 1});
+            activities.put(second, new Object[] {variable, -1});
+            return this;
+        }
+
+        /**
+         * @param reaction reaction such as "2 HCl + 2 Al = 2 AlCl + H2"
+         */
+        public Builder reaction(String reaction) {
+            reactions.add(reaction);
+            return this;
+        }
+
+        /**
+         * @param balance element such as "Cl", or equality of element fluxes such as "Al + Ga = N"
+         */
+        public Builder balance(String balance) {
+            balances.add(balance);
+            return this;
+        }
+
+        /**
+         * @param variable solid solution variable
+         * @param element element such as "Al"
+         * @param total sum of elements such as "Al + Ga"
+         */
+        public Builder fraction(String variable, String element, String total) {
+            compositions.add(new String[] {variable, element, total});
+            return this;
+        }
+
+        public ReactorModel build() {
+            return new ReactorModel(this);
+        }
+    }
+
+    /**
+     * Product of factors (offset + scale * x[variable]) ^ exponent
+     */
+    private static class Side {
+        final int[] variable;
+        final int[] exponent;
+        final double[] offset;
+        final double[] scale;
+
+        Side(List<int[]> factors) {
+            int m = factors.size();
+            variable = new int[m];
+            exponent = new int[m];
+            offset = new double[m];
+            scale = new double[m];
+            for (int j = 0; j < m; j++) {
+                int[] factor = factors.get(j);
+                variable[j] = factor[0];
+                exponent[j] = factor[1];
+                /** factor[2] is 0 for Pe or x, -1 for 1 - x **/
+                offset[j] = factor[2] < 0 ? 1 : 0;
+                scale[j] = factor[2] < 0 ? -1 : 1;
+            }
+        }
+
+        /**
+         * @param skip factor left out, -1 for none
+         */
+        double product(double[] x, int skip) {
+            double product = 1;
+            for (int j = 0; j < variable.length; j++) {
+                if (j != skip) {
+                    product *= power(offset[j] + scale[j] * x[variable[j]], exponent[j]);
+                }
+            }
+            return product;
+        }
+
+        void derivative(double[] x, double factor, double[] result) {
+            derivative(x, factor, result, variable);
+        }
+
+        /**
+         * Batched {@link #product(double[], int)}, in the same order of operations
+         * @param x x[i][p] is variable i at point p
+         * @param result to be filled with the product at every point
+         */
+        void product(double[][] x, int skip, double[] result) {
+            Arrays.fill(result, 1);
+            for (int j = 0; j < variable.length; j++) {
+                if (j != skip) {
+                    double[] column = x[variable[j]];
+                    for (int p = 0; p < result.length; p++) {
+                        result[p] *= power(offset[j] + scale[j] * column[p], exponent[j]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Batched {@link #derivative(double[], double, double[])}
+         * @param factor factor at every point
+         * @param result result[i][p] is incremented by the derivative by variable i at point p
+         * @param rest buffer of point count size
+         */
+        void derivative(double[][] x, double[] factor, double[][] result, int row, double[] rest) {
+            for (int j = 0; j < variable.length; j++) {
+                int e = exponent[j];
+                double[] column = x[variable[j]];
+                double[] derivative = result[row + variable[j]];
+                product(x, j, rest);
+                for (int p = 0; p < rest.length; p++) {
+                    double base = offset[j] + scale[j] * column[p];
+                    derivative[p] += factor[p] * e * scale[j] * power(base, e - 1) * rest[p];
+                }
+            }
+        }
+
+        /**
+         * @param position index in result of the derivative by each factor
+         */
+        void derivative(double[] x, double factor, double[] result, int[] position) {
+            for (int j = 0; j < variable.length; j++) {
+                int e = exponent[j];
+                double base = offset[j] + scale[j] * x[variable[j]];
+                result[position[j]] += factor * e * scale[j] * power(base, e - 1) * product(x, j);
+            }
+        }
+    }
+
+    /**
+     * @return increasing distinct elements of a and b
+     */
+    private static int[] union(int[] a, int[] b) {
+        int[] all = new int[a.length + b.length];
+        System.arraycopy(a, 0, all, 0, a.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        Arrays.sort(all);
+        int count = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (count == 0 || all[i] != all[count - 1]) {
+                all[count++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    /**
+     * @return index of each variable in dependencies
+     */
+    private static int[] positions(int[] variable, int[] dependencies) {
+        int[] position = new int[variable.length];
+        for (int j = 0; j < variable.length; j++) {
+            position[j] = Arrays.binarySearch(dependencies, variable[j]);
+        }
+        return position;
+    }
+
+    private static double power(double x, int e) {
+        double result = 1;
+        for (int i = 0; i < e; i++) {
+            result *= x;
+        }
+        return result;
+    }
+
+    /**
+     * Reactants product - K * products product
+     */
+    private static class MassAction extends Function {
+        private final Side reactants;
+        private final Side products;
+        private final double k;
+        private final int[] dependencies;
+        /** Index in dependencies of the variable of each factor **/
+        private final int[] reactantPosition;
+        private final int[] productPosition;
+
+        MassAction(Side reactants, Side products, double k) {
+            this.reactants = reactants;
+            this.products = products;
+            this.k = k;
+            dependencies = union(reactants.variable, products.variable);
+            reactantPosition = positions(reactants.variable, dependencies);
+            productPosition = positions(products.variable, dependencies);
+        }
+
+        @Override
+        public double calculate(double[] x) {
+            return reactants.product(x, -1) - k * products.product(x, -1);
+        }
+
+        @Override
+        public boolean derivative(double[] x, double[] result) {
+            Arrays.fill(result, 0);
+            reactants.derivative(x, 1, result);
+            products.derivative(x, -k, result);
+            return true;
+        }
+
+        @Override
+        public int[] dependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void sparseDerivative(double[] x, double[] result) {
+            Arrays.fill(result, 0, dependencies.length, 0);
+            reactants.derivative(x, 1, result, reactantPosition);
+            products.derivative(x, -k, result, productPosition);
+        }
+    }
+
+    /**
+     * sum(w[i] * (p[i] - x[i])) - x[variable] * sum(v[i] * (p[i] - x[i])), second sum only if variable >= 0
+     */
+    private static class Flux extends Function {
+        private final double[] w;
+        private final double[] v;
+        private final double[] p;
+        private final int variable;
+
+        private final int[] dependencies;
+
+        Flux(double[] w, double[] v, double[] p, int variable) {
+            this.w = w;
+            this.v = v;
+            this.p = p;
+            this.variable = variable;
+            int count = 0;
+            int[] all = new int[w.length + 1];
+            for (int i = 0; i < w.length; i++) {
+                if (w[i] != 0 || (v != null && v[i] != 0)) {
+                    all[count++] = i;
+                }
+            }
+            /** composition variables follow the gases **/
+            if (variable >= 0) {
+                all[count++] = variable;
+            }
+            dependencies = Arrays.copyOf(all, count);
+        }
+
+        private static double sum(double[] w, double[] p, double[] x) {
+            double sum = 0;
+            for (int i = 0; i < w.length; i++) {
+                if (w[i] != 0) {
+                    sum += w[i] * (p[i] - x[i]);
+                }
+            }
+            return sum;
+        }
+
+        @Override
+        public double calculate(double[] x) {
+            double result = sum(w, p, x);
+            return variable < 0 ? result : result - x[variable] * sum(v, p, x);
+        }
+
+        @Override
+        public boolean derivative(double[] x, double[] result) {
+            Arrays.fill(result, 0);
+            for (int i = 0; i < w.length; i++) {
+                result[i] = -w[i];
+            }
+            if (variable >= 0) {
+                for (int i = 0; i < v.length; i++) {
+                    result[i] += x[variable] * v[i];
+                }
+                result[variable] = -sum(v, p, x);
+            }
+            return true;
+        }
+
+        @Override
+        public int[] dependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void sparseDerivative(double[] x, double[] result) {
+            for (int k = 0; k < dependencies.length; k++) {
+                int i = dependencies[k];
+                if (i == variable) {
+                    result[k] = -sum(v, p, x);
+                } else {
+                    result[k] = variable >= 0 ? x[variable] * v[i] - w[i] : -w[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * The equations of {@link #functions} at many temperatures, evaluated point by point with the
+     * arithmetic of MassAction and Flux, so values and derivatives equal theirs exactly
+     */
+    private static class Batch implements BatchSystem {
+        private final ReactorModel model;
+        private final int n;
+        private final int points;
+        /** k[r][p], minus k[r][p] as the factor of the products **/
+        private final double[][] k;
+        private final double[][] minusK;
+        private final double[] p;
+        /** d[i][p] is D of gas i at point p **/
+        private final double[][] d;
+        private final double[] ones;
+        private final double[] left;
+        private final double[] right;
+
+        Batch(ReactorModel model, double[][] k, double[] p, double[][] d) {
+            this.model = model;
+            n = model.size();
+            points = d[0].length;
+            this.k = k;
+            this.p = p;
+            this.d = d;
+            minusK = new double[k.length][points];
+            for (int r = 0; r < k.length; r++) {
+                for (int t = 0; t < points; t++) {
+                    minusK[r][t] = -k[r][t];
+                }
+            }
+            ones = new double[points];
+            Arrays.fill(ones, 1);
+            left = new double[points];
+            right = new double[points];
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+
+        @Override
+        public int points() {
+            return points;
+        }
+
+        @Override
+        public void residual(double[][] x, double[][] f) {
+            int e = 0;
+            for (int r = 0; r < model.reactions.length; r++, e++) {
+                model.reactants[r].product(x, -1, left);
+                model.products[r].product(x, -1, right);
+                double[] kr = k[r];
+                for (int t = 0; t < points; t++) {
+                    f[e][t] = left[t] - kr[t] * right[t];
+                }
+            }
+            for (double[] atoms : model.balanceAtoms) {
+                flux(x, atoms, f[e++]);
+            }
+            for (int c = 0; c < model.compositionVariable.length; c++, e++) {
+                flux(x, model.compositionAtoms[c], f[e]);
+                flux(x, model.compositionTotalAtoms[c], right);
+                double[] variable = x[model.compositionVariable[c]];
+                for (int t = 0; t < points; t++) {
+                    f[e][t] = f[e][t] - variable[t] * right[t];
+                }
+            }
+        }
+
+        /**
+         * result[p] = sum(atoms[i] * d[i][p] * (p[i] - x[i][p])), as Flux sums it
+         */
+        private void flux(double[][] x, double[] atoms, double[] result) {
+            Arrays.fill(result, 0);
+            for (int i = 0; i < atoms.length; i++) {
+                if (atoms[i] != 0) {
+                    double[] di = d[i], xi = x[i];
+                    for (int t = 0; t < points; t++) {
+                        result[t] += atoms[i] * di[t] * (p[i] - xi[t]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void jacobian(double[][] x, double[][] j) {
+            int e = 0;
+            for (int r = 0; r < model.reactions.length; r++, e++) {
+                model.reactants[r].derivative(x, ones, j, e * n, left);
+                model.products[r].derivative(x, minusK[r], j, e * n, left);
+            }
+            for (double[] atoms : model.balanceAtoms) {
+                for (int i = 0; i < atoms.length; i++) {
+                    if (atoms[i] != 0) {
+                        for (int t = 0; t < points; t++) {
+                            j[e * n + i][t] = -(atoms[i] * d[i][t]);
+                        }
+                    }
+                }
+                e++;
+            }
+            for (int c = 0; c < model.compositionVariable.length; c++, e++) {
+                double[] atoms = model.compositionAtoms[c];
+                double[] total = model.compositionTotalAtoms[c];
+                double[] variable = x[model.compositionVariable[c]];
+                for (int i = 0; i < atoms.length; i++) {
+                    if (atoms[i] != 0 || total[i] != 0) {
+                        for (int t = 0; t < points; t++) {
+                            j[e * n + i][t] = -(atoms[i] * d[i][t]) + variable[t] * (total[i] * d[i][t]);
+                        }
+                    }
+                }
+                flux(x, total, right);
+                for (int t = 0; t < points; t++) {
+                    j[e * n + model.compositionVariable[c]][t] = -right[t];
+                }
+            }
+        }
+    }
+
+    /**
+     * Species table and network compiled against it, replaced together when data is reloaded
+     */
+    private static class Compiled {
+        final SpeciesTable table;
+        final ReactionNetwork network;
+
+        Compiled(SpeciesTable table, ReactionNetwork network) {
+            this.table = table;
+            this.network = network;
+        }
+    }
+
+    private final String[] gases;
+    private final String[] variables;
+    private final String[] reactions;
+    /** Index in {@link DataHolder#REACTIONS}, -1 if the reaction is not there **/
+    private final int[] reactionNumber;
+    private final Side[] reactants;
+    private final Side[] products;
+    /** Atoms of element combination per gas, rows are balances **/
+    private final double[][] balanceAtoms;
+    private final int[] compositionVariable;
+    private final double[][] compositionAtoms;
+    private final double[][] compositionTotalAtoms;
+    private volatile Compiled compiled;
+
+    private ReactorModel(Builder builder) {
+        gases = builder.gases.toArray(new String[builder.gases.size()]);
+        variables = new String[gases.length + builder.fractions.size()];
+        System.arraycopy(gases, 0, variables, 0, gases.length);
+        for (int i = 0; i < builder.fractions.size(); i++) {
+            variables[gases.length + i] = builder.fractions.get(i);
+        }
+        int m = builder.reactions.size();
+        reactions = builder.reactions.toArray(new String[m]);
+        reactionNumber = new int[m];
+        reactants = new Side[m];
+        products = new Side[m];
+        List<String> known = new ArrayList<String>();
+        for (String reaction : DataHolder.REACTIONS) {
+            known.add(normalize(reaction));
+        }
+        for (int r = 0; r < m; r++) {
+            reactionNumber[r] = known.indexOf(normalize(reactions[r]));
+            String[] sides = reactions[r].split("=");
+            if (sides.length != 2) {
+                throw new IllegalArgumentException("Reaction must have exactly one '=': " + reactions[r]);
+            }
+            reactants[r] = side(sides[0], builder.activities);
+            products[r] = side(sides[1], builder.activities);
+        }
+        balanceAtoms = new double[builder.balances.size()][];
+        for (int b = 0; b < balanceAtoms.length; b++) {
+            String[] sides = builder.balances.get(b).split("=");
+            if (sides.length > 2) {
+                throw new IllegalArgumentException("Balance must have at most one '=': " + builder.balances.get(b));
+            }
+            balanceAtoms[b] = atoms(sides[0]);
+            if (sides.length == 2) {
+                double[] right = atoms(sides[1]);
+                for (int i = 0; i < gases.length; i++) {
+                    balanceAtoms[b][i] -= right[i];
+                }
+            }
+        }
+        int c = builder.compositions.size();
+        compositionVariable = new int[c];
+        compositionAtoms = new double[c][];
+        compositionTotalAtoms = new double[c][];
+        for (int i = 0; i < c; i++) {
+            String[] composition = builder.compositions.get(i);
+            compositionVariable[i] = variableIndex(composition[0]);
+            compositionAtoms[i] = atoms(composition[1]);
+            compositionTotalAtoms[i] = atoms(composition[2]);
+        }
+        if (m + balanceAtoms.length + c != variables.length) {
+            throw new IllegalArgumentException((m + balanceAtoms.length + c) + " equations for "
+                + variables.length + " unknowns");
+        }
+    }
+
+    private static String normalize(String reaction) {
+        return reaction.replaceAll("\\s+", "");
+    }
+
+    private int variableIndex(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown variable: " + name);
+    }
+
+    /**
+     * @param side terms such as "2 HCl + 2 Al"
+     */
+    private Side side(String side, Map<String, Object[]> activities) {
+        List<int[]> factors = new ArrayList<int[]>();
+        for (String term : side.split("\\+")) {
+            term = term.trim();
+            int i = 0;
+            while (i < term.length() && Character.isDigit(term.charAt(i))) {
+                i++;
+            }
+            int coefficient = i == 0 ? 1 : Integer.parseInt(term.substring(0, i));
+            String species = term.substring(i).trim();
+            if (i < term.length() && term.charAt(i) == '.') {
+                throw new IllegalArgumentException("Fractional coefficient: " + term);
+            }
+            int gas = Arrays.asList(gases).indexOf(species);
+            if (gas >= 0) {
+                factors.add(new int[] {gas, coefficient, 0});
+            } else if (activities.containsKey(species)) {
+                Object[] activity = activities.get(species);
+                factors.add(new int[] {variableIndex((String) activity[0]), coefficient, (Integer) activity[1]});
+            }
+        }
+        return new Side(factors);
+    }
+
+    /**
+     * @param elements elements such as "Al + Ga" or "2 H"
+     * @return atoms of the weighted elements in every gas
+     */
+    private double[] atoms(String elements) {
+        double[] atoms = new double[gases.length];
+        for (String term : elements.split("\\+")) {
+            term = term.trim();
+            int i = 0;
+            while (i < term.length() && Character.isDigit(term.charAt(i))) {
+                i++;
+            }
+            int coefficient = i == 0 ? 1 : Integer.parseInt(term.substring(0, i));
+            String element = term.substring(i).trim();
+            for (int g = 0; g < gases.length; g++) {
+                Integer count = formula(gases[g]).get(element);
+                if (count != null) {
+                    atoms[g] += coefficient * count;
+                }
+            }
+        }
+        return atoms;
+    }
+
+    /**
+     * @param species formula such as "AlCl3"
+     * @return atoms of every element
+     */
+    private static Map<String, Integer> formula(String species) {
+        Map<String, Integer> atoms = new LinkedHashMap<String, Integer>();
+        Matcher matcher = ELEMENT.matcher(species);
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            int count = matcher.group(2).isEmpty() ? 1 : Integer.parseInt(matcher.group(2));
+            Integer previous = atoms.get(matcher.group(1));
+            atoms.put(matcher.group(1), previous == null ? count : previous + count);
+            end = matcher.end();
+        }
+        if (end != species.length()) {
+            throw new IllegalArgumentException("Cannot parse formula: " + species);
+        }
+        return atoms;
+    }
+
+    /**
+     * Compiles reactions against the current species table, checking that every gas
+     * of every reaction is an unknown
+     */
+    private Compiled compile() {
+        SpeciesTable table = DataHolder.getTable();
+        Compiled c = compiled;
+        if (c == null || c.table != table) {
+            ReactionNetwork network = new ReactionNetwork(table, reactions);
+            for (String reaction : reactions) {
+                for (String side : reaction.split("=")) {
+                    for (String term : side.split("\\+")) {
+                        String species = term.trim().replaceFirst("^\\d+\\s*", "");
+                        if (table.isGas(table.indexOf(species)) && !Arrays.asList(gases).contains(species)) {
+                            throw new IllegalArgumentException("Gas " + species + " of " + reaction + " is not an unknown");
+                        }
+                    }
+                }
+            }
+            c = new Compiled(table, network);
+            compiled = c;
+        }
+        return c;
+    }
+
+    /**
+     * @return number of unknowns and equations
+     */
+    public int size() {
+        return variables.length;
+    }
+
+    public int gasCount() {
+        return gases.length;
+    }
+
+    public String getGas(int i) {
+        return gases[i];
+    }
+
+    /**
+     * @return name of unknown i, the gas for Pe unknowns
+     */
+    public String getVariable(int i) {
+        return variables[i];
+    }
+
+    /**
+     * @return true for Pe unknowns, false for solid solution compositions, which lie in [0, 1]
+     */
+    public boolean isGas(int i) {
+        return i < gases.length;
+    }
+
+    /**
+     * @param T temperature
+     * @param p Pg of the gases
+     * @param d D of the gases at T
+     * @return equations of the model at T
+     */
+    public Function[] functions(double T, double[] p, double[] d) {
+        double[] k = constants(compile(), T);
+        Function[] functions = new Function[variables.length];
+        int e = 0;
+        for (int r = 0; r < reactions.length; r++) {
+            functions[e++] = new MassAction(reactants[r], products[r], k[r]);
+        }
+        for (double[] atoms : balanceAtoms) {
+            functions[e++] = new Flux(weights(atoms, d), null, p, -1);
+        }
+        for (int i = 0; i < compositionVariable.length; i++) {
+            functions[e++] = new Flux(weights(compositionAtoms[i], d), weights(compositionTotalAtoms[i], d),
+                p, compositionVariable[i]);
+        }
+        return functions;
+    }
+
+    /**
+     * Batched form of {@link #functions} for solving many temperatures in lockstep
+     * @param T temperatures
+     * @param p Pg of the gases
+     * @param d d[i][t] is D of gas i at T[t]
+     * @return equations of the model at every temperature, their values and derivatives are
+     * exactly those of the functions at the same temperature
+     */
+    public BatchSystem batch(double[] T, double[] p, double[][] d) {
+        Compiled c = compile();
+        double[][] k = new double[reactions.length][T.length];
+        for (int t = 0; t < T.length; t++) {
+            double[] constants = constants(c, T[t]);
+            for (int r = 0; r < reactions.length; r++) {
+                k[r][t] = constants[r];
+            }
+        }
+        return new Batch(this, k, p.clone(), d);
+    }
+
+    /**
+     * @return K of every reaction at T, cached ones for reactions of {@link DataHolder#REACTIONS}
+     */
+    private double[] constants(Compiled c, double T) {
+        double[] known = null;
+        double[] k = new double[reactions.length];
+        for (int r = 0; r < reactions.length; r++) {
+            if (reactionNumber[r] >= 0) {
+                if (known == null) {
+                    known = DataHolder.getK(T);
+                }
+                k[r] = known[reactionNumber[r]];
+            } else {
+                k[r] = c.network.getK(T, r);
+            }
+        }
+        return k;
+    }
+
+    private static double[] weights(double[] atoms, double[] d) {
+        double[] w = new double[atoms.length];
+        for (int i = 0; i < atoms.length; i++) {
+            w[i] = atoms[i] * d[i];
+        }
+        return w;
+    }
+}
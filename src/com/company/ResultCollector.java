@@ -0,0 +1,113 @@
+package com.company;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps results in memory as one double column per value name, so post-processing
+ * can use them without writing and parsing text.
+ */
+public class ResultCollector implements ResultSink {
+
+    private String[] columns = null;
+    private double[][] values = null;
+    private int size = 0;
+
+    /**
+     * Reads a file written by {@link BinaryResultSink}
+     * @param fileName file name
+     * @return collected results of the file
+     * @throws IOException if the file cannot be read or has another format
+     */
+    public static ResultCollector readBinary(String fileName) throws IOException {
+        ResultCollector collector = new ResultCollector();
+        ResultFileReader.readBinary(fileName, collector.handler());
+        return collector;
+    }
+
+    /**
+     * Reads a file written by {@link TextResultSink}
+     * @param fileName file name
+     * @return collected results of the file
+     * @throws IOException if the file cannot be read or has another format
+     */
+    public static ResultCollector readText(String fileName) throws IOException {
+        ResultCollector collector = new ResultCollector();
+        ResultFileReader.readText(fileName, collector.handler());
+        return collector;
+    }
+
+    private ResultFileReader.RecordHandler handler() {
+        return new ResultFileReader.RecordHandler() {
+            @Override
+            public void record(String[] names, double[] record) {
+                if (columns == null) {
+                    start(names.clone());
+                }
+                add(record);
+            }
+        };
+    }
+
+    private void start(String[] names) {
+        columns = names;
+        values = new double[columns.length][16];
+    }
+
+    private void add(double[] record) {
+        if (columns.length > 0 && size == values[0].length) {
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = Arrays.copyOf(values[i], 2 * size);
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            values[i][size] = record[i];
+        }
+        size++;
+    }
+
+    @Override
+    public void accept(PointResult result) {
+        if (columns == null) {
+            start(result.getNames());
+        }
+        if (!result.hasNames(columns)) {
+            throw new IllegalArgumentException("Result values differ from columns " + Arrays.toString(columns));
+        }
+        double[] record = new double[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            record[i] = result.getValue(i);
+        }
+        add(record);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return number of results
+     */
+    public int size() {
+        return size;
+    }
+
+    public String[] getNames() {
+        return columns == null ? new String[0] : columns.clone();
+    }
+
+    /**
+     * @param name value name
+     * @return values of all results, null if there is no such value
+     */
+    public double[] getColumn(String name) {
+        if (columns != null) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(name)) {
+                    return Arrays.copyOf(values[i], size);
+                }
+            }
+        }
+        return null;
+    }
+}
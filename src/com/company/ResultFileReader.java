@@ -0,0 +1,364 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams records out of files written by {@link TextResultSink} and {@link BinaryResultSink}.
+ * Files are memory-mapped window by window, so they may be larger than the heap, and text
+ * is parsed from bytes: a String is only created for a new value name or a number that
+ * cannot be converted exactly by the fast path.
+ */
+public class ResultFileReader {
+
+    /**
+     * Receives records one by one
+     */
+    public interface RecordHandler {
+        /**
+         * @param names value names, the same array for every record
+         * @param values values of one record, reused for the next record
+         */
+        void record(String[] names, double[] values);
+    }
+
+    private final static long WINDOW = 1 << 26;
+    /** Mantissas up to 2^53 and powers of ten up to 10^22 are exact doubles **/
+    private final static long EXACT_MANTISSA = 1L << 53;
+    private final static double[] POWERS = new double[23];
+
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 10;
+        }
+    }
+
+    /**
+     * @param fileName text file of "name = value" lines, a record ends where its first name repeats
+     * @param handler receiver of records
+     * @throws IOException if the file cannot be read, records have different names, the last record
+     * is incomplete or a value is not a number
+     */
+    public static void readText(String fileName, RecordHandler handler) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            new TextParser(handler).parse(file.getChannel());
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Passes the records of a text file to sink as results, so plots and fits can be derived
+     * again from an existing file. The sink is not closed.
+     * @param fileName text file of "name = value" lines
+     * @param sink receiver of results
+     * @throws IOException if the file cannot be read or the sink failed
+     */
+    public static void readText(String fileName, ResultSink sink) throws IOException {
+        try {
+            readText(fileName, handler(sink));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Passes the records of a binary file to sink as results, see {@link #readText(String, ResultSink)}
+     * @param fileName file written by {@link BinaryResultSink}
+     * @param sink receiver of results
+     * @throws IOException if the file cannot be read or the sink failed
+     */
+    public static void readBinary(String fileName, ResultSink sink) throws IOException {
+        try {
+            readBinary(fileName, handler(sink));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static RecordHandler handler(final ResultSink sink) {
+        return new RecordHandler() {
+            @Override
+            public void record(String[] names, double[] values) {
+                PointResult result = new PointResult();
+                for (int i = 0; i < names.length; i++) {
+                    result.add(names[i], values[i]);
+                }
+                try {
+                    sink.accept(result);
+                } catch (IOException e) {
+                    /** unwrapped by the caller **/
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param fileName file written by {@link BinaryResultSink}
+     * @param handler receiver of records
+     * @throws IOException if the file cannot be read or has another format
+     */
+    public static void readBinary(String fileName, RecordHandler handler) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW));
+            if (header.getInt() != BinaryResultSink.MAGIC) {
+                throw new IOException("Not a result file: " + fileName);
+            }
+            String[] names = new String[header.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                /** modified UTF-8 of DataOutput.writeUTF, names are ASCII **/
+                byte[] name = new byte[header.getShort() & 0xffff];
+                header.get(name);
+                names[i] = new String(name, "UTF-8");
+            }
+            if (names.length == 0) {
+                return;
+            }
+            long recordSize = 8L * names.length;
+            long records = (size - header.position()) / recordSize;
+            long perWindow = Math.max(1, WINDOW / recordSize);
+            double[] values = new double[names.length];
+            for (long first = 0; first < records; first += perWindow) {
+                long count = Math.min(perWindow, records - first);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    header.position() + first * recordSize, count * recordSize);
+                DoubleBuffer doubles = window.order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+                for (long r = 0; r < count; r++) {
+                    doubles.get(values);
+                    handler.record(names, values);
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    private static class TextParser {
+        private final RecordHandler handler;
+        private final List<byte[]> nameBytes = new ArrayList<byte[]>();
+        private final List<String> nameList = new ArrayList<String>();
+        private String[] names = null;
+        private double[] values = new double[16];
+        /** Column of the next value in the current record **/
+        private int column = 0;
+        private char[] chars = new char[32];
+
+        TextParser(RecordHandler handler) {
+            this.handler = handler;
+        }
+
+        void parse(FileChannel channel) throws IOException {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long length = Math.min(WINDOW, size - start);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                boolean last = start + length == size;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        line(window, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last) {
+                    if (lineStart < length) {
+                        line(window, lineStart, (int) length);
+                    }
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line longer than " + WINDOW + " bytes");
+                }
+                /** the next window starts at the unfinished line **/
+                start += lineStart;
+            }
+            if (column > 0) {
+                if (names != null && column != names.length) {
+                    throw new IOException("Truncated record");
+                }
+                endRecord();
+            }
+        }
+
+        private void line(MappedByteBuffer buffer, int from, int to) throws IOException {
+            if (to > from && buffer.get(to - 1) == '\r') {
+                to--;
+            }
+            if (to == from) {
+                return;
+            }
+            int separator = -1;
+            for (int i = from; i + 2 < to; i++) {
+                if (buffer.get(i) == ' ' && buffer.get(i + 1) == '=' && buffer.get(i + 2) == ' ') {
+                    separator = i;
+                    break;
+                }
+            }
+            if (separator < 0) {
+                throw new IOException("Expected \"name = value\" line");
+            }
+            int name = name(buffer, from, separator);
+            if (names == null) {
+                if (name < column) {
+                    /** first repeated name ends the first record and fixes the columns **/
+                    names = nameList.toArray(new String[nameList.size()]);
+                    endRecord();
+                }
+            } else if (column == names.length) {
+                endRecord();
+            }
+            if (names != null && name != column) {
+                throw new IOException("Expected " + names[column] + " but found " + nameList.get(name));
+            }
+            if (column == values.length) {
+                values = Arrays.copyOf(values, 2 * column);
+            }
+            values[column++] = number(buffer, separator + 3, to);
+        }
+
+        private void endRecord() {
+            if (names == null) {
+                names = nameList.toArray(new String[nameList.size()]);
+            }
+            if (values.length != names.length) {
+                values = Arrays.copyOf(values, names.length);
+            }
+            handler.record(names, values);
+            column = 0;
+        }
+
+        /**
+         * @return index of the name, the expected column is tried first
+         */
+        private int name(MappedByteBuffer buffer, int from, int to) {
+            if (column < nameBytes.size() && equal(nameBytes.get(column), buffer, from, to)) {
+                return column;
+            }
+            for (int i = 0; i < nameBytes.size(); i++) {
+                if (equal(nameBytes.get(i), buffer, from, to)) {
+                    return i;
+                }
+            }
+            byte[] bytes = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                bytes[i - from] = buffer.get(i);
+            }
+            nameBytes.add(bytes);
+            nameList.add(new String(bytes));
+            return nameBytes.size() - 1;
+        }
+
+        private static boolean equal(byte[] bytes, MappedByteBuffer buffer, int from, int to) {
+            if (bytes.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses output of Double.toString. Decimal mantissa and exponent are read as integers; if the
+         * mantissa is below 2^53 and the power of ten is at most 22, one multiplication or division
+         * gives the correctly rounded value. Other numbers go to Double.parseDouble.
+         */
+        private double number(MappedByteBuffer buffer, int from, int to) throws IOException {
+            int i = from;
+            boolean negative = false;
+            if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            long mantissa = 0;
+            boolean digit = false;
+            int digits = 0;
+            int exponent = 0;
+            boolean point = false;
+            for (; i < to; i++) {
+                byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    digit = true;
+                    if (digits < 19) {
+                        mantissa = 10 * mantissa + (b - '0');
+                        if (mantissa != 0) {
+                            digits++;
+                        }
+                        if (point) {
+                            exponent--;
+                        }
+                    } else if (!point) {
+                        exponent++;
+                    }
+                } else if (b == '.' && !point) {
+                    point = true;
+                } else {
+                    break;
+                }
+            }
+            if (!digit) {
+                /** empty value, lone sign or point, NaN and Infinity **/
+                return slow(buffer, from, to);
+            }
+            if (i < to && (buffer.get(i) == 'E' || buffer.get(i) == 'e')) {
+                i++;
+                boolean negativeExponent = false;
+                if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                    negativeExponent = buffer.get(i) == '-';
+                    i++;
+                }
+                int e = 0;
+                int start = i;
+                for (; i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                    e = e < 100000 ? 10 * e + (buffer.get(i) - '0') : e;
+                }
+                if (i == start) {
+                    return slow(buffer, from, to);
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+            if (i != to || digits >= 19) {
+                return slow(buffer, from, to);
+            }
+            if (mantissa < EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+                double value = exponent < 0 ? mantissa / POWERS[-exponent] : mantissa * POWERS[exponent];
+                return negative ? -value : value;
+            }
+            return slow(buffer, from, to);
+        }
+
+        private double slow(MappedByteBuffer buffer, int from, int to) throws IOException {
+            if (chars.length < to - from) {
+                chars = new char[to - from];
+            }
+            for (int i = from; i < to; i++) {
+                chars[i - from] = (char) buffer.get(i);
+            }
+            try {
+                return Double.parseDouble(new String(chars, 0, to - from));
+            } catch (NumberFormatException e) {
+                throw new IOException("Cannot parse number: " + new String(chars, 0, to - from));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.company;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of sweep results, e.g. a text, CSV or binary file, the console or memory.
+ * Results are written in the order they are accepted.
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * @param result result of one sweep point
+     * @throws IOException if writing failed
+     */
+    void accept(PointResult result) throws IOException;
+
+    /**
+     * Flushes buffered results and releases the destination
+     * @throws IOException if writing failed
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.company;
+
+/**
+ * Preallocated buffers for {@link com.company.EquationSystem} iterations.
+ * One workspace must not be used by several threads at once.
+ */
+public class SolverWorkspace {
+
+    private final static ThreadLocal<SolverWorkspace[]> perThread = new ThreadLocal<SolverWorkspace[]>() {
+        @Override
+        protected SolverWorkspace[] initialValue() {
+            return new SolverWorkspace[0];
+        }
+    };
+
+    /**
+     * @param n equation count
+     * @return workspace of size n owned by the current thread
+     */
+    public static SolverWorkspace forCurrentThread(int n) {
+        SolverWorkspace[] workspaces = perThread.get();
+        if (workspaces.length <= n) {
+            SolverWorkspace[] grown = new SolverWorkspace[n + 1];
+            System.arraycopy(workspaces, 0, grown, 0, workspaces.length);
+            workspaces = grown;
+            perThread.set(workspaces);
+        }
+        if (workspaces[n] == null) {
+            workspaces[n] = new SolverWorkspace(n);
+        }
+        return workspaces[n];
+    }
+
+    final int n;
+    final double[][] jacobian;
+    /** Right side of the linear system */
+    final double[] b;
+    final LUDecomposition lu;
+    /** Newton direction */
+    final double[] dx;
+    /** Last accepted step and right side before it, for quasi-Newton updates */
+    final double[] step;
+    final double[] previousB;
+    /** Point on the line search ray */
+    final double[] trial;
+    /** Argument and derivative of the one-dimensional line search function */
+    final double[] arg = new double[1];
+    final double[] derivative = new double[1];
+
+    public SolverWorkspace(int n) {
+        this.n = n;
+        jacobian = new double[n][n];
+        b = new double[n];
+        lu = new LUDecomposition(n);
+        dx = new double[n];
+        trial = new double[n];
+        step = new double[n];
+        previousB = new double[n];
+    }
+
+    public int size() {
+        return n;
+    }
+}
@@ -0,0 +1,140 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Jacobian of an {@link EquationSystem} stored on the dependency pattern of its functions.
+ * Equations are reordered so that every row has its diagonal element, which ILU(0) needs:
+ * row r of the matrix is equation order[r], matched to variable r.
+ * Newton directions come from ILU(0) preconditioned BiCGSTAB.
+ */
+class SparseJacobian {
+
+    private final static double TOLERANCE = 1e-14;
+
+    private final Function[] functions;
+    private final int n;
+    private final int[] order;
+    /** Position in the matrix values of derivative k of equation order[r] **/
+    private final int[][] position;
+    private final SparseMatrix matrix;
+    private final IncompleteLU ilu;
+    private final KrylovSolver solver;
+    private final double[] derivative;
+    private final double[] b;
+
+    private SparseJacobian(Function[] functions, int[] order) {
+        this.functions = functions;
+        this.order = order;
+        n = functions.length;
+        int[][] columns = new int[n][];
+        int longest = 0;
+        for (int r = 0; r < n; r++) {
+            int[] dependencies = functions[order[r]].dependencies();
+            columns[r] = dependencies.clone();
+            longest = Math.max(longest, dependencies.length);
+        }
+        matrix = new SparseMatrix(columns);
+        position = new int[n][];
+        for (int r = 0; r < n; r++) {
+            position[r] = new int[columns[r].length];
+            for (int k = 0; k < columns[r].length; k++) {
+                position[r][k] = matrix.index(r, columns[r][k]);
+            }
+        }
+        ilu = new IncompleteLU(matrix);
+        solver = new KrylovSolver(n, KrylovSolver.Method.BICGSTAB);
+        solver.setTolerance(TOLERANCE);
+        solver.setPreconditioner(ilu);
+        derivative = new double[longest];
+        b = new double[n];
+    }
+
+    /**
+     * @param functions system functions
+     * @return sparse Jacobian of the functions, null if one of them declares no dependencies
+     * or no ordering of the equations gives every row a diagonal element
+     */
+    static SparseJacobian of(Function[] functions) {
+        int n = functions.length;
+        int[][] dependencies = new int[n][];
+        for (int i = 0; i < n; i++) {
+            dependencies[i] = functions[i].dependencies();
+            if (dependencies[i] == null) {
+                return null;
+            }
+        }
+        /** equation matched to each variable, found by augmenting paths **/
+        int[] match = new int[n];
+        Arrays.fill(match, -1);
+        boolean[] visited = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(visited, false);
+            if (!augment(i, dependencies, match, visited)) {
+                return null;
+            }
+        }
+        return new SparseJacobian(functions, match);
+    }
+
+    private static boolean augment(int equation, int[][] dependencies, int[] match, boolean[] visited) {
+        for (int variable : dependencies[equation]) {
+            if (!visited[variable]) {
+                visited[variable] = true;
+                if (match[variable] < 0 || augment(match[variable], dependencies, match, visited)) {
+                    match[variable] = equation;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the Jacobian at x and factors the preconditioner
+     * @param x argument, restored before return
+     * @return false if ILU(0) met a zero pivot
+     */
+    boolean evaluate(double[] x) {
+        double[] values = matrix.getValues();
+        for (int r = 0; r < n; r++) {
+            functions[order[r]].sparseDerivative(x, derivative);
+            int[] p = position[r];
+            for (int k = 0; k < p.length; k++) {
+                values[p[k]] = derivative[k];
+            }
+        }
+        ilu.factor(matrix);
+        return !ilu.isSingular();
+    }
+
+    /**
+     * Solves J dx = b for the last evaluated Jacobian
+     * @param right right side in equation order, not changed
+     * @param dx array to be filled with the solution
+     * @return false if the iterations broke down or did not converge
+     */
+    boolean solve(double[] right, double[] dx) {
+        for (int r = 0; r < n; r++) {
+            b[r] = right[order[r]];
+        }
+        Arrays.fill(dx, 0);
+        return solver.solve(matrix, b, dx);
+    }
+
+    /**
+     * @param rows array to be filled with the dense Jacobian in equation order
+     */
+    void copyTo(double[][] rows) {
+        double[] values = matrix.getValues();
+        int[] rowStart = matrix.getRowStart();
+        int[] columns = matrix.getColumns();
+        for (int r = 0; r < n; r++) {
+            double[] row = rows[order[r]];
+            Arrays.fill(row, 0);
+            for (int p = rowStart[r]; p < rowStart[r + 1]; p++) {
+                row[columns[p]] = values[p];
+            }
+        }
+    }
+}
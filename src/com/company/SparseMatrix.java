@@ -0,0 +1,173 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Square matrix in compressed sparse row form. The structure is fixed on creation and may be
+ * shared by several matrices, only the values of structural non-zeros can be changed.
+ */
+public class SparseMatrix implements LinearOperator {
+
+    private final int n;
+    /** Non-zeros of row i are at positions rowStart[i]..rowStart[i + 1]-1 **/
+    private final int[] rowStart;
+    /** Columns of the non-zeros, increasing within a row **/
+    private final int[] column;
+    private final double[] values;
+
+    /**
+     * @param columns columns[i] are the increasing columns of the non-zeros of row i, copied
+     */
+    public SparseMatrix(int[][] columns) {
+        n = columns.length;
+        rowStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            rowStart[i + 1] = rowStart[i] + columns[i].length;
+        }
+        column = new int[rowStart[n]];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < columns[i].length; k++) {
+                int j = columns[i][k];
+                if (j < 0 || j >= n || (k > 0 && j <= columns[i][k - 1])) {
+                    throw new IllegalArgumentException("Row " + i + " columns must increase within [0, " + n + ")");
+                }
+                column[rowStart[i] + k] = j;
+            }
+        }
+        values = new double[column.length];
+    }
+
+    /**
+     * @param structure matrix whose structure is shared, values start at zero
+     */
+    public SparseMatrix(SparseMatrix structure) {
+        n = structure.n;
+        rowStart = structure.rowStart;
+        column = structure.column;
+        values = new double[column.length];
+    }
+
+    /**
+     * @param m dense matrix
+     * @return non-zero elements of m
+     */
+    public static SparseMatrix fromDense(Matrix m) {
+        int n = m.size();
+        int[][] columns = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = 0; j < n; j++) {
+                if (m.get(i, j) != 0) {
+                    count++;
+                }
+            }
+            columns[i] = new int[count];
+            count = 0;
+            for (int j = 0; j < n; j++) {
+                if (m.get(i, j) != 0) {
+                    columns[i][count++] = j;
+                }
+            }
+        }
+        SparseMatrix result = new SparseMatrix(columns);
+        for (int i = 0; i < n; i++) {
+            for (int p = result.rowStart[i]; p < result.rowStart[i + 1]; p++) {
+                result.values[p] = m.get(i, result.column[p]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return number of structural non-zeros
+     */
+    public int nonZeros() {
+        return column.length;
+    }
+
+    /**
+     * @return true if both matrices have the same non-zero positions
+     */
+    public boolean sameStructure(SparseMatrix other) {
+        return column == other.column
+            || (Arrays.equals(rowStart, other.rowStart) && Arrays.equals(column, other.column));
+    }
+
+    /**
+     * @return position of element (i, j) in the non-zeros, -1 if it is not one of them
+     */
+    public int index(int i, int j) {
+        int position = Arrays.binarySearch(column, rowStart[i], rowStart[i + 1], j);
+        return position < 0 ? -1 : position;
+    }
+
+    public double get(int i, int j) {
+        int position = index(i, j);
+        return position < 0 ? 0 : values[position];
+    }
+
+    /**
+     * @throws IllegalArgumentException if (i, j) is not a structural non-zero
+     */
+    public void set(int i, int j, double value) {
+        int position = index(i, j);
+        if (position < 0) {
+            throw new IllegalArgumentException("(" + i + ", " + j + ") is not in the structure");
+        }
+        values[position] = value;
+    }
+
+    int[] getRowStart() {
+        return rowStart;
+    }
+
+    int[] getColumns() {
+        return column;
+    }
+
+    /**
+     * @return values of the non-zeros backing this matrix
+     */
+    double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @param rows n rows of size n to be filled with this matrix
+     */
+    public void copyTo(double[][] rows) {
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(rows[i], 0);
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                rows[i][column[p]] = values[p];
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] x, double[] y) {
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                sum += values[p] * x[column[p]];
+            }
+            y[i] = sum;
+        }
+    }
+
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        Arrays.fill(y, 0);
+        for (int i = 0; i < n; i++) {
+            double xi = x[i];
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                y[column[p]] += values[p] * xi;
+            }
+        }
+    }
+}
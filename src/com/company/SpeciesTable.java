@@ -0,0 +1,148 @@
+package com.company;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable parsed thermodynamic data. Species are addressed by index, each one owns
+ * a block of {@link #PARAMETERS} doubles, missing values are NaN.
+ */
+public final class SpeciesTable {
+
+    public final static int H = 0;
+    public final static int F1 = 1;
+    public final static int F2 = 2;
+    public final static int F3 = 3;
+    public final static int F4 = 4;
+    public final static int F5 = 5;
+    public final static int F6 = 6;
+    public final static int F7 = 7;
+    public final static int T1 = 8;
+    public final static int T2 = 9;
+    public final static int SIGMA = 10;
+    public final static int EPS = 11;
+    public final static int MU = 12;
+    public final static int DENSITY = 13;
+    public final static int PARAMETERS = 14;
+
+    private final static String[] parameterNames = new String[] {
+        "H", "F1", "F2", "F3", "F4", "F5", "F6", "F7", "T1", "T2", "SIGMA", "EPS", "MU", "DENSITY"
+    };
+
+    private final static Map<String, Integer> parameterIndex = new HashMap<String, Integer>();
+
+    static {
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameterIndex.put(parameterNames[i], i);
+        }
+    }
+
+    /**
+     * @param parameter parameter name, case-insensitive
+     * @return parameter index or -1 if parameter is not numeric
+     */
+    public static int parameterIndex(String parameter) {
+        Integer index = parameterIndex.get(parameter.toUpperCase());
+        return index == null ? -1 : index;
+    }
+
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final double[] values;
+    private final boolean[] gas;
+    private final int n2;
+
+    /**
+     * @param data parameter -> (species -> value), names in upper case as read by {@link DataHolder}
+     * @param speciesNames species names in upper case
+     */
+    SpeciesTable(Map<String, Map<String, String>> data, String[] speciesNames) {
+        names = speciesNames.clone();
+        Map<String, Integer> index = new HashMap<String, Integer>();
+        values = new double[names.length * PARAMETERS];
+        gas = new boolean[names.length];
+        Map<String, String> phases = data.get("PHASE");
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+            gas[i] = phases == null || "'g'".equals(phases.get(names[i]));
+            for (int p = 0; p < PARAMETERS; p++) {
+                Map<String, String> column = data.get(parameterNames[p]);
+                values[i * PARAMETERS + p] = parse(column == null ? null : column.get(names[i]));
+            }
+        }
+        this.index = Collections.unmodifiableMap(index);
+        Integer n2 = index.get("N2");
+        this.n2 = n2 == null ? -1 : n2;
+    }
+
+    private static double parse(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int species) {
+        return names[species];
+    }
+
+    /**
+     * @param species species name, case-insensitive
+     * @return species index
+     */
+    public int indexOf(String species) {
+        Integer i = index.get(species.toUpperCase());
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown chemical agent: " + species);
+        }
+        return i;
+    }
+
+    /**
+     * @param species species index
+     * @return true for gases, false for condensed phases
+     */
+    public boolean isGas(int species) {
+        return gas[species];
+    }
+
+    public double get(int species, int parameter) {
+        return values[species * PARAMETERS + parameter];
+    }
+
+    /**
+     * @param species species index
+     * @param T temperature
+     * @return Gibbs energy G(T)
+     */
+    public double getG(int species, double T) {
+        int o = species * PARAMETERS;
+        double x = T / 10000;
+        return values[o + H] - T * (values[o + F1] + values[o + F2] * Math.log(x)
+            + values[o + F3] / (x * x) + values[o + F4] / x + values[o + F5] * x
+            + values[o + F6] * x * x + values[o + F7] * x * x * x);
+    }
+
+    /**
+     * @param species species index
+     * @param T temperature
+     * @return diffusion coefficient of species in N2
+     */
+    public double getD(int species, double T) {
+        int o = species * PARAMETERS, q = n2 * PARAMETERS;
+        double sigmaIN2 = (values[o + SIGMA] + values[q + SIGMA]) / 2;
+        double epsIN2 = Math.sqrt(values[o + EPS] * values[q + EPS]);
+        double omega11 = 1.074 * Math.pow(T / epsIN2, -0.1604);
+        double muIN2 = 2 * values[o + MU] * values[q + MU] / (values[o + MU] + values[q + MU]);
+        return 0.02628 * Math.pow(T, 1.5) / (DataHolder.ATMOSPHERIC_PRESSURE * sigmaIN2 * omega11 * Math.sqrt(muIN2));
+    }
+}
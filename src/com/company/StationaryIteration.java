@@ -0,0 +1,277 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Jacobi and Gauss-Seidel iterations with relaxation over the non-zeros of a {@link SparseMatrix}:
+ * x[i] = (1 - w) x[i] + w (b[i] - sum of a[i][j] x[j], j != i) / a[i][i].
+ * Jacobi sweeps are split into row chunks run in parallel. Gauss-Seidel rows are coloured so that rows
+ * of one colour do not refer to each other: colours are swept in turn, rows of a colour in parallel.
+ * A tridiagonal matrix gets the two colours of red-black ordering, a dense one a colour per row.
+ * After a solve the iterations made, the last change and the achieved convergence rate are reported.
+ * One instance must not be used by several threads at once.
+ */
+public class StationaryIteration {
+
+    public enum Method {
+        JACOBI,
+        /** Multicolour Gauss-Seidel, SOR with relaxation above 1 **/
+        GAUSS_SEIDEL
+    }
+
+    private final SparseMatrix a;
+    private final int n;
+    private final int[] rowStart;
+    private final int[] column;
+    private final double[] values;
+    private final double[] inverseDiagonal;
+    private final int[] diagonal;
+    /** Rows of each colour and colour of each row, found when first needed **/
+    private int[][] colorRows = null;
+    private int[] color = null;
+    private final double[] next;
+    private final double[] change;
+
+    private long iterations = 0;
+    private double firstDelta = Double.NaN;
+    private double delta = Double.NaN;
+
+    /**
+     * @param a matrix with non-zero diagonal, its values are read on every solve
+     * @throws IllegalArgumentException if a diagonal element is missing or zero
+     */
+    public StationaryIteration(SparseMatrix a) {
+        this.a = a;
+        n = a.size();
+        rowStart = a.getRowStart();
+        column = a.getColumns();
+        values = a.getValues();
+        diagonal = new int[n];
+        inverseDiagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] = a.index(i, i);
+            if (diagonal[i] < 0 || values[diagonal[i]] == 0) {
+                throw new IllegalArgumentException("Zero diagonal element in row " + i);
+            }
+        }
+        next = new double[n];
+        change = new double[n];
+    }
+
+    public SparseMatrix getMatrix() {
+        return a;
+    }
+
+    /**
+     * @return iterations made by the last {@link #solve}
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return max |x[i] change| of the last iteration, NaN before the first solve
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return mean factor by which the change fell per iteration, (last / first change) ^ (1 / (iterations - 1));
+     * NaN after less than two iterations
+     */
+    public double getRate() {
+        if (iterations < 2 || firstDelta == 0) {
+            return Double.NaN;
+        }
+        return Math.pow(delta / firstDelta, 1.0 / (iterations - 1));
+    }
+
+    /**
+     * @return number of Gauss-Seidel colours, 0 until they are needed
+     */
+    public int getColors() {
+        return colorRows == null ? 0 : colorRows.length;
+    }
+
+    /**
+     * @return ||B|| of the Jacobi iteration x = B x + c, the max over rows of sum |a[i][j] / a[i][i]|, j != i
+     */
+    public double getJacobiNorm() {
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                if (p != diagonal[i]) {
+                    sum += Math.abs(values[p]);
+                }
+            }
+            max = Math.max(max, sum / Math.abs(values[diagonal[i]]));
+        }
+        return max;
+    }
+
+    /**
+     * Splits B of {@link #getJacobiNorm()} as Gauss-Seidel sweeps it: row i takes new values of rows
+     * of smaller colours and old values of the others
+     * @return {||B1||, ||B2||}, the max row sums of the parts using new and old values
+     */
+    public double[] getSeidelNorms() {
+        if (colorRows == null) {
+            colors();
+        }
+        double q1 = 0, q2 = 0;
+        for (int i = 0; i < n; i++) {
+            double earlier = 0, later = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                if (color[column[p]] < color[i]) {
+                    earlier += Math.abs(values[p]);
+                } else if (color[column[p]] > color[i]) {
+                    later += Math.abs(values[p]);
+                }
+            }
+            double d = Math.abs(values[diagonal[i]]);
+            q1 = Math.max(q1, earlier / d);
+            q2 = Math.max(q2, later / d);
+        }
+        return new double[] {q1, q2};
+    }
+
+    /**
+     * @param method iteration
+     * @param b constants vector
+     * @param x initial approximation, replaced by the result
+     * @param maxIterations maximum iterations count
+     * @param threshold iterations stop when no element changes by threshold or more
+     * @param relaxation w, 1 for no relaxation
+     * @return true if the changes fell below threshold, false if the iterations ran out or diverged to NaN
+     */
+    public boolean solve(Method method, final double[] b, final double[] x, long maxIterations,
+                         double threshold, final double relaxation) {
+        for (int i = 0; i < n; i++) {
+            inverseDiagonal[i] = 1 / values[diagonal[i]];
+        }
+        if (method == Method.GAUSS_SEIDEL && colorRows == null) {
+            colors();
+        }
+        long rowCost = Math.max(1, column.length / Math.max(1, n));
+        DenseKernels.RowKernel jacobi = new DenseKernels.RowKernel() {
+            @Override
+            public void rows(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    next[i] = update(i, b, x, relaxation);
+                    change[i] = Math.abs(next[i] - x[i]);
+                }
+            }
+        };
+        DenseKernels.RowKernel[] seidel = new DenseKernels.RowKernel[method == Method.GAUSS_SEIDEL ? colorRows.length : 0];
+        for (int c = 0; c < seidel.length; c++) {
+            final int[] rows = colorRows[c];
+            seidel[c] = new DenseKernels.RowKernel() {
+                @Override
+                public void rows(int from, int to) {
+                    for (int k = from; k < to; k++) {
+                        int i = rows[k];
+                        double value = update(i, b, x, relaxation);
+                        change[i] = Math.abs(value - x[i]);
+                        x[i] = value;
+                    }
+                }
+            };
+        }
+        iterations = 0;
+        firstDelta = Double.NaN;
+        delta = Double.NaN;
+        while (iterations < maxIterations) {
+            if (method == Method.JACOBI) {
+                DenseKernels.run(jacobi, n, rowCost);
+                System.arraycopy(next, 0, x, 0, n);
+            } else {
+                for (int c = 0; c < seidel.length; c++) {
+                    DenseKernels.run(seidel[c], colorRows[c].length, rowCost);
+                }
+            }
+            iterations++;
+            double max = 0;
+            for (int i = 0; i < n; i++) {
+                /** NaN compares false, so it is caught separately **/
+                if (change[i] > max || change[i] != change[i]) {
+                    max = change[i];
+                }
+            }
+            delta = max;
+            if (iterations == 1) {
+                firstDelta = max;
+            }
+            if (max != max) {
+                return false;
+            }
+            if (max < threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double update(int i, double[] b, double[] x, double relaxation) {
+        double sum = b[i];
+        for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+            if (p != diagonal[i]) {
+                sum -= values[p] * x[column[p]];
+            }
+        }
+        return relaxation * sum * inverseDiagonal[i] + (1 - relaxation) * x[i];
+    }
+
+    /**
+     * Greedy colouring of rows in order, rows i and j are neighbours if a[i][j] or a[j][i] is a non-zero
+     */
+    private void colors() {
+        List<List<Integer>> transposed = new ArrayList<List<Integer>>();
+        for (int j = 0; j < n; j++) {
+            transposed.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < n; i++) {
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                if (column[p] != i) {
+                    transposed.get(column[p]).add(i);
+                }
+            }
+        }
+        color = new int[n];
+        Arrays.fill(color, -1);
+        /** forbidden[c] == i + 1 if colour c is taken by a neighbour of row i **/
+        int[] forbidden = new int[n + 1];
+        List<List<Integer>> rows = new ArrayList<List<Integer>>();
+        for (int i = 0; i < n; i++) {
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                if (color[column[p]] >= 0) {
+                    forbidden[color[column[p]]] = i + 1;
+                }
+            }
+            for (int j : transposed.get(i)) {
+                if (color[j] >= 0) {
+                    forbidden[color[j]] = i + 1;
+                }
+            }
+            int c = 0;
+            while (forbidden[c] == i + 1) {
+                c++;
+            }
+            color[i] = c;
+            if (c == rows.size()) {
+                rows.add(new ArrayList<Integer>());
+            }
+            rows.get(c).add(i);
+        }
+        colorRows = new int[rows.size()][];
+        for (int c = 0; c < colorRows.length; c++) {
+            colorRows[c] = new int[rows.get(c).size()];
+            for (int k = 0; k < colorRows[c].length; k++) {
+                colorRows[c][k] = rows.get(c).get(k);
+            }
+        }
+    }
+}
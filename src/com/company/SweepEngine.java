@@ -0,0 +1,115 @@
+package com.company;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Solves independent sweep points in parallel and writes results in grid order.
+ */
+public class SweepEngine {
+
+    /**
+     * Solver of a single sweep point. Must not share mutable state between calls.
+     */
+    public interface PointSolver {
+        /**
+         * @param point sweep point
+         * @param initial initial argument predicted from neighbouring points, null if unknown
+         * @return result with {@link PointResult#getSolution()} set if it can seed the next point
+         */
+        PointResult solve(SweepPoint point, double[] initial);
+    }
+
+    private final int threads;
+    private boolean warmStart = false;
+    private boolean extrapolate = false;
+
+    public SweepEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SweepEngine(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * In continuation mode the grid is split into one contiguous run per thread, and inside
+     * a run the solution at each point seeds the solve at the next one. Extrapolation assumes
+     * evenly spaced grid points.
+     * @param warmStart seed each point with the previous solution
+     * @param extrapolate extrapolate the seed from the two previous solutions
+     */
+    public void setContinuation(boolean warmStart, boolean extrapolate) {
+        this.warmStart = warmStart;
+        this.extrapolate = extrapolate;
+    }
+
+    /**
+     * Solves every grid point, passing each result to sink as soon as all points before it are done.
+     * The sink is not closed.
+     * @param grid sweep points
+     * @param solver point solver
+     * @param sink output, may be null
+     * @return results in grid order
+     * @throws IOException if sink failed
+     */
+    public List<PointResult> run(List<SweepPoint> grid, final PointSolver solver, ResultSink sink) throws IOException {
+        int runs = warmStart ? Math.max(1, Math.min(threads, grid.size())) : grid.size();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<List<PointResult>>> futures = new ArrayList<Future<List<PointResult>>>(runs);
+            for (int r = 0; r < runs; r++) {
+                final int first = r * grid.size() / runs;
+                final List<SweepPoint> run = grid.subList(first, (r + 1) * grid.size() / runs);
+                futures.add(pool.submit(new Callable<List<PointResult>>() {
+                    @Override
+                    public List<PointResult> call() {
+                        return solveRun(first, run, solver);
+                    }
+                }));
+            }
+            List<PointResult> results = new ArrayList<PointResult>(grid.size());
+            for (Future<List<PointResult>> future : futures) {
+                for (PointResult result : future.get()) {
+                    if (sink != null) {
+                        sink.accept(result);
+                    }
+                    results.add(result);
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep point failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Before each point the thread switches to the random stream numbered by the grid index
+     * of the point, so random starts do not depend on which thread solves which point.
+     * @param first grid index of the first point of the run
+     */
+    private List<PointResult> solveRun(int first, List<SweepPoint> run, PointSolver solver) {
+        List<PointResult> results = new ArrayList<PointResult>(run.size());
+        Continuation continuation = new Continuation(extrapolate);
+        for (int i = 0; i < run.size(); i++) {
+            double[] initial = warmStart ? continuation.predict(i) : null;
+            RandomHolder.reseed(first + i);
+            PointResult result = solver.solve(run.get(i), initial);
+            if (warmStart && result.getSolution() != null) {
+                continuation.accept(i, result.getSolution());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,38 @@
+package com.company;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One point of a sweep grid: temperature, input partial pressures and diffusion layer thickness.
+ */
+public class SweepPoint {
+
+    private final double T;
+    private final Map<String, Double> pressure;
+    private final double delta;
+
+    /**
+     * @param T temperature
+     * @param pressure input partial pressures, copied so the caller may keep changing its map
+     * @param delta diffusion layer thickness
+     */
+    public SweepPoint(double T, Map<String, Double> pressure, double delta) {
+        this.T = T;
+        this.pressure = Collections.unmodifiableMap(new HashMap<String, Double>(pressure));
+        this.delta = delta;
+    }
+
+    public double getT() {
+        return T;
+    }
+
+    public Map<String, Double> getPressure() {
+        return pressure;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+}
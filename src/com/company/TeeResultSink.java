@@ -0,0 +1,43 @@
+package com.company;
+
+import java.io.IOException;
+
+/**
+ * Passes every result to several sinks, e.g. a file and {@link TextResultSink#console()}.
+ */
+public class TeeResultSink implements ResultSink {
+
+    private final ResultSink[] sinks;
+
+    public TeeResultSink(ResultSink... sinks) {
+        this.sinks = sinks.clone();
+    }
+
+    @Override
+    public void accept(PointResult result) throws IOException {
+        for (ResultSink sink : sinks) {
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * Closes every sink, even if closing one of them fails
+     * @throws IOException first failure
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ResultSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes results in "name = value" form, one value per line, as read by {@link ResultFileReader#readText}.
+ */
+public class TextResultSink implements ResultSink {
+
+    private final BufferedWriter out;
+    private final boolean closeOut;
+
+    /**
+     * @return sink echoing results to System.out, closing it only flushes
+     */
+    public static TextResultSink console() {
+        return new TextResultSink(new OutputStreamWriter(System.out), false);
+    }
+
+    public TextResultSink(String fileName) throws IOException {
+        this(new FileWriter(fileName), true);
+    }
+
+    /**
+     * @param out output, buffered by the sink
+     * @param closeOut close out when the sink is closed
+     */
+    public TextResultSink(Writer out, boolean closeOut) {
+        this.out = new BufferedWriter(out);
+        this.closeOut = closeOut;
+    }
+
+    @Override
+    public void accept(PointResult result) throws IOException {
+        for (int i = 0; i < result.size(); i++) {
+            out.write(result.getName(i));
+            out.write(" = ");
+            out.write(Double.toString(result.getValue(i)));
+            out.newLine();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closeOut) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+}
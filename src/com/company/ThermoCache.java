@@ -0,0 +1,127 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free cache of G(T), K(T) and D(T) keyed by temperature.
+ * A miss computes the values of every species and reaction at that temperature at once.
+ * Temperatures are hashed into a fixed table of immutable entries, a new temperature replaces
+ * the one in its slot. Readers take no lock and never box the key, so concurrent sweeps do not
+ * wait for each other; two threads missing the same temperature both compute it.
+ */
+public class ThermoCache {
+
+    private static class Values {
+        final double T;
+        final double[] g;
+        final double[] k;
+        final double[] d;
+
+        Values(double T, double[] g, double[] k, double[] d) {
+            this.T = T;
+            this.g = g;
+            this.k = k;
+            this.d = d;
+        }
+    }
+
+    private final SpeciesTable table;
+    private final ReactionNetwork reactions;
+    private final AtomicReferenceArray<Values> slots;
+    /** 64 - log2(slots) **/
+    private final int shift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param table species data
+     * @param reactions reactions of {@link #getK(double)}
+     * @param capacity number of cached temperatures, rounded up to a power of two
+     */
+    public ThermoCache(SpeciesTable table, ReactionNetwork reactions, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be in [1, 2^30]: " + capacity);
+        }
+        this.table = table;
+        this.reactions = reactions;
+        int bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        slots = new AtomicReferenceArray<Values>(1 << bits);
+        shift = 64 - bits;
+    }
+
+    private int slot(double T) {
+        if (shift == 64) {
+            return 0;
+        }
+        /** Fibonacci hashing, temperatures of a sweep differ in few bits **/
+        return (int) ((Double.doubleToLongBits(T) * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private Values get(double T) {
+        int slot = slot(T);
+        Values values = slots.get(slot);
+        if (values != null && Double.doubleToLongBits(values.T) == Double.doubleToLongBits(T)) {
+            hits.increment();
+            return values;
+        }
+        misses.increment();
+        double[] g = new double[table.size()];
+        double[] d = new double[table.size()];
+        for (int i = 0; i < g.length; i++) {
+            g[i] = table.getG(i, T);
+            d[i] = table.isGas(i) ? table.getD(i, T) : Double.NaN;
+        }
+        double[] k = new double[reactions.size()];
+        reactions.evaluateFromTable(T, g, null, k);
+        values = new Values(T, g, k, d);
+        slots.set(slot, values);
+        return values;
+    }
+
+    public double getG(int species, double T) {
+        return get(T).g[species];
+    }
+
+    /**
+     * @param species index of a gas
+     * @param T temperature
+     * @return diffusion coefficient of species in N2
+     */
+    public double getD(int species, double T) {
+        return get(T).d[species];
+    }
+
+    /**
+     * @param T temperature
+     * @return copy of the equilibrium constants of all reactions
+     */
+    public double[] getK(double T) {
+        return get(T).k.clone();
+    }
+
+    public double getK(double T, int r) {
+        return get(T).k[r];
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ThermoCache: hits = " + hits.sum() + ", misses = " + misses.sum();
+    }
+}
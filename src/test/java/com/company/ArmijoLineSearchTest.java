@@ -0,0 +1,93 @@
+package com.company;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArmijoLineSearchTest {
+
+    /**
+     * f(x) = x + a * x^3, discrepancy along a line is quadratic for a = 0
+     */
+    private static EquationSystem system(final double a) {
+        return new EquationSystem(new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return x[0] + a * x[0] * x[0] * x[0];
+                }
+            }
+        });
+    }
+
+    /**
+     * Discrepancy (1 - 3t)^2 from x = 1 along d = -3: the quadratic model is exact,
+     * so one backtracking step lands on the minimum t = 1/3
+     */
+    @Test
+    public void quadraticInterpolationFindsMinimum() {
+        EquationSystem system = system(0);
+        double t = new ArmijoLineSearch().search(system, new double[] {1}, new double[] {-3}, 1, -6);
+        assertEquals(1.0 / 3, t, 1e-15);
+        assertEquals(2, system.getLineSearchEvaluations());
+    }
+
+    @Test
+    public void halvesWithoutInterpolation() {
+        EquationSystem system = system(0);
+        double t = new ArmijoLineSearch(1e-4, 1e-12, false).search(system, new double[] {1}, new double[] {-3}, 1, -6);
+        assertEquals(0.5, t, 0);
+    }
+
+    /**
+     * Without a slope the derivative-free test is used and t is halved
+     */
+    @Test
+    public void halvesWithUnknownSlope() {
+        EquationSystem system = system(0);
+        double t = new ArmijoLineSearch().search(system, new double[] {1}, new double[] {-3}, 1, Double.NaN);
+        assertEquals(0.5, t, 0);
+    }
+
+    /**
+     * Discrepancy of degree 6 along the line, t = 1 and t = 0.1 fail, so the cubic model is used.
+     * The accepted t satisfies the Armijo condition with fewer evaluations than halving needs
+     */
+    @Test
+    public void cubicInterpolationSatisfiesArmijoCondition() {
+        double[] x = {1};
+        double[] d = {-80};
+        double f0 = 4;
+        /** d/dt (f(x + t d))^2 = 2 f(x) f'(x) d **/
+        double slope = 2 * 2 * 4 * d[0];
+        EquationSystem interpolated = system(1);
+        double t = new ArmijoLineSearch().search(interpolated, x, d, f0, slope);
+        long evaluations = interpolated.getLineSearchEvaluations();
+        assertTrue(t > 0);
+        assertTrue(interpolated.discrepancy(x, d, t) <= f0 + 1e-4 * t * slope);
+        EquationSystem halved = system(1);
+        new ArmijoLineSearch(1e-4, 1e-12, false).search(halved, x, d, f0, slope);
+        assertTrue(evaluations < halved.getLineSearchEvaluations());
+    }
+
+    @Test
+    public void rejectsAscentDirection() {
+        EquationSystem system = system(0);
+        assertEquals(0, new ArmijoLineSearch().search(system, new double[] {1}, new double[] {1}, 1, 2), 0);
+        assertEquals(0, system.getLineSearchEvaluations());
+    }
+
+    @Test
+    public void givesUpBelowMinimalStep() {
+        EquationSystem system = system(0);
+        /** (1 - 30t)^2 needs t = 1/16 by halving **/
+        double t = new ArmijoLineSearch(1e-4, 0.1, false).search(system, new double[] {1}, new double[] {-30}, 1, -60);
+        assertEquals(0, t, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsArmijoConstantOutsideUnitInterval() {
+        new ArmijoLineSearch(1, 1e-12, true);
+    }
+}
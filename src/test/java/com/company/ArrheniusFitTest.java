@@ -0,0 +1,81 @@
+package com.company;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArrheniusFitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recoversActivationEnergy() {
+        double ea = 85000;
+        double a = 3.5e7;
+        ArrheniusFit fit = new ArrheniusFit("T", "k", "rate");
+        for (int i = 0; i < 50; i++) {
+            double t = 600 + 10 * i;
+            double k = a * Math.exp(-ea / (DataHolder.R * t));
+            PointResult result = new PointResult();
+            result.add("other", i);
+            result.add("T", t);
+            result.add("k", k);
+            result.add("rate", -2 * k);
+            fit.accept(result);
+        }
+        assertEquals(50, fit.getCount());
+        assertEquals(-ea / DataHolder.R, fit.getSlope("k"), 1e-6 * ea / DataHolder.R);
+        assertEquals(Math.log(a), fit.getIntercept("k"), 1e-9 * Math.log(a));
+        assertEquals(ea, fit.getActivationEnergy("k"), 1e-6 * ea);
+        /** the sign is dropped, the factor 2 only shifts the intercept **/
+        assertEquals(ea, fit.getActivationEnergy("rate"), 1e-6 * ea);
+        assertEquals(Math.log(2 * a), fit.getIntercept("rate"), 1e-9 * Math.log(a));
+    }
+
+    @Test
+    public void slopeIsUnknownForOneTemperature() {
+        ArrheniusFit fit = new ArrheniusFit("T", "k");
+        for (int i = 0; i < 3; i++) {
+            PointResult result = new PointResult();
+            result.add("T", 700);
+            result.add("k", 1 + i);
+            fit.accept(result);
+        }
+        assertTrue(Double.isNaN(fit.getSlope("k")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValueNotFitted() {
+        new ArrheniusFit("T", "k").getSlope("rate");
+    }
+
+    /**
+     * A fit streamed from a task file equals the fit of the sweep that wrote it
+     */
+    @Test
+    public void fitsResultsReadBackFromFile() throws IOException {
+        File file = folder.newFile("task.out");
+        ArrheniusFit live = new ArrheniusFit("T", "k");
+        ResultSink sink = new TeeResultSink(new TextResultSink(file.getPath()), live);
+        for (int i = 0; i < 20; i++) {
+            double t = 900 + 25 * i;
+            PointResult result = new PointResult();
+            result.add("T", t);
+            result.add("k", Math.exp(5 - 12000 / t) * (1 + 0.01 * Math.sin(i)));
+            sink.accept(result);
+        }
+        sink.close();
+        ArrheniusFit replayed = new ArrheniusFit("T", "k");
+        ResultFileReader.readText(file.getPath(), replayed);
+        assertEquals(20, replayed.getCount());
+        assertEquals(live.getSlope("k"), replayed.getSlope("k"), 0);
+        assertEquals(live.getIntercept("k"), replayed.getIntercept("k"), 0);
+    }
+}
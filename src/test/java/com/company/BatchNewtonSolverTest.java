@@ -0,0 +1,134 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchNewtonSolverTest {
+
+    private static final double[] T = {623, 673, 723, 773, 823, 873, 923};
+
+    private static Map<String, Double> pressure() {
+        Map<String, Double> pressure = new HashMap<String, Double>();
+        pressure.put("HCl", 10000d);
+        pressure.put("AlCl", 0d);
+        pressure.put("AlCl2", 0d);
+        pressure.put("AlCl3", 0d);
+        pressure.put("H2", 0d);
+        return pressure;
+    }
+
+    private static double[] p(ReactorModel model) {
+        double[] p = new double[model.size()];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = pressure().get(model.getGas(i));
+        }
+        return p;
+    }
+
+    private static double[][] d(ReactorModel model) {
+        double[][] d = new double[model.size()][T.length];
+        for (int i = 0; i < d.length; i++) {
+            for (int k = 0; k < T.length; k++) {
+                d[i][k] = DataHolder.getD(model.getGas(i), T[k]);
+            }
+        }
+        return d;
+    }
+
+    private static double[] column(double[][] d, int k) {
+        double[] column = new double[d.length];
+        for (int i = 0; i < d.length; i++) {
+            column[i] = d[i][k];
+        }
+        return column;
+    }
+
+    /**
+     * Batch residuals and Jacobians are those of the scalar functions at every temperature
+     */
+    @Test
+    public void batchEvaluatesScalarFunctions() {
+        ReactorModel model = Main.getChlorideModel("Al");
+        int n = model.size();
+        double[] p = p(model);
+        double[][] d = d(model);
+        BatchSystem batch = model.batch(T, p, d);
+        double[][] x = new double[n][T.length];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < T.length; k++) {
+                x[i][k] = 100 * (i + 1) + 7 * k;
+            }
+        }
+        double[][] f = new double[n][T.length];
+        double[][] j = new double[n * n][T.length];
+        batch.residual(x, f);
+        batch.jacobian(x, j);
+        double[] derivative = new double[n];
+        for (int k = 0; k < T.length; k++) {
+            Function[] functions = model.functions(T[k], p, column(d, k));
+            double[] xk = column(x, k);
+            for (int e = 0; e < n; e++) {
+                assertEquals(functions[e].calculate(xk), f[e][k], 0);
+                functions[e].derivative(xk, derivative);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(derivative[i], j[e * n + i][k], 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lockstep iterations from the root at the middle temperature end at the roots single solves find.
+     * Points the batch leaves above the accepted discrepancy are solved one by one by Main, so all of
+     * its results are roots too.
+     */
+    @Test
+    public void batchSolveAgreesWithSingleSolves() {
+        ReactorModel model = Main.getChlorideModel("Al");
+        int n = model.size();
+        double[] p = p(model);
+        double[][] d = d(model);
+        double[] anchor = Main.solveAlClx(pressure(), T[T.length / 2], 0.01).getSolution();
+        double[] lower = new double[n];
+        double[] upper = new double[n];
+        Arrays.fill(lower, -Main.ALLOWED_DISCREPANCY);
+        Arrays.fill(upper, DataHolder.ATMOSPHERIC_PRESSURE + Main.ALLOWED_DISCREPANCY);
+
+        double[][] x = new double[n][T.length];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(x[i], anchor[i]);
+        }
+        BatchNewtonSolver solver = new BatchNewtonSolver(model.batch(T, p, d));
+        solver.setBounds(lower, upper);
+        solver.solve(x, 1e-12, Main.BATCH_ITERATIONS);
+        List<PointResult> results = Main.solveAlClx(pressure(), T, 0.01);
+
+        int accepted = 0;
+        for (int k = 0; k < T.length; k++) {
+            EquationSystem system = new EquationSystem(model.functions(T[k], p, column(d, k)));
+            system.setBounds(lower, upper);
+            double[] single = system.universalMethod(1e-12, 1000, anchor);
+            assertTrue(system.discrepancy(single) <= Main.ACCEPTED_DISCREPANCY);
+            if (solver.getDiscrepancy(k) <= Main.ACCEPTED_DISCREPANCY) {
+                accepted++;
+                assertClose(single, column(x, k));
+            }
+            assertEquals(T[k], results.get(k).getValue(0), 0);
+            assertClose(single, results.get(k).getSolution());
+        }
+        assertTrue(accepted > T.length / 2);
+    }
+
+    private static void assertClose(double[] expected, double[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], 1e-8 * Math.max(1, Math.abs(expected[i])));
+        }
+    }
+}
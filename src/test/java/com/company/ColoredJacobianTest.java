@@ -0,0 +1,92 @@
+package com.company;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColoredJacobianTest {
+
+    /**
+     * f[i] = x[i-1] * x[i] + sin(x[i+1]) + x[i]^3, each depends on three neighbouring variables
+     */
+    private static Function[] tridiagonal(final int n, final boolean declare) {
+        Function[] functions = new Function[n];
+        for (int k = 0; k < n; k++) {
+            final int i = k;
+            functions[i] = new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    double left = i > 0 ? x[i - 1] : 1;
+                    double right = i + 1 < n ? Math.sin(x[i + 1]) : 0;
+                    return left * x[i] + right + x[i] * x[i] * x[i];
+                }
+
+                @Override
+                public int[] dependencies() {
+                    if (!declare) {
+                        return null;
+                    }
+                    if (i == 0) {
+                        return new int[] {0, 1};
+                    }
+                    return i + 1 < n ? new int[] {i - 1, i, i + 1} : new int[] {i - 1, i};
+                }
+            };
+        }
+        return functions;
+    }
+
+    private static double[] point(int n) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 0.3 + 0.1 * i;
+        }
+        return x;
+    }
+
+    @Test
+    public void agreesWithTotalDerivative() {
+        int n = 10;
+        Function[] functions = tridiagonal(n, true);
+        double[] x = point(n);
+        double[] saved = x.clone();
+        double[][] jacobian = new double[n][n];
+        ColoredJacobian colored = new ColoredJacobian(functions, n, false);
+        colored.evaluate(x, jacobian);
+        assertArrayEquals(saved, x, 0);
+        for (int i = 0; i < n; i++) {
+            assertArrayEquals(functions[i].totalDerivative(x), jacobian[i], 0);
+        }
+        assertEquals(3, colored.getColors());
+        /** one base value per row and one difference per non-zero, instead of n * (n + 1) **/
+        assertEquals(n + 3 * n - 2, colored.getEvaluations());
+        colored.evaluate(x, jacobian);
+        assertEquals(2 * (n + 3 * n - 2), colored.getEvaluations());
+    }
+
+    @Test
+    public void detectsUndeclaredDependencies() {
+        int n = 10;
+        Function[] functions = tridiagonal(n, false);
+        double[] x = point(n);
+        double[][] jacobian = new double[n][n];
+        ColoredJacobian colored = new ColoredJacobian(functions, n, true);
+        colored.evaluate(x, jacobian);
+        for (int i = 0; i < n; i++) {
+            assertArrayEquals(functions[i].totalDerivative(x), jacobian[i], 0);
+        }
+        assertEquals(3, colored.getColors());
+    }
+
+    @Test
+    public void withoutDependenciesEveryColumnHasItsColour() {
+        int n = 4;
+        Function[] functions = tridiagonal(n, false);
+        double[][] jacobian = new double[n][n];
+        ColoredJacobian colored = new ColoredJacobian(functions, n, false);
+        colored.evaluate(point(n), jacobian);
+        assertEquals(n, colored.getColors());
+        assertEquals(n * (n + 1), colored.getEvaluations());
+    }
+}
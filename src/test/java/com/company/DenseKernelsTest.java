@@ -0,0 +1,126 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Blocked and parallel kernels against the plain loops of Matrix, bit for bit
+ */
+public class DenseKernelsTest {
+
+    /** Sizes below and above the strip, with rows left over by the four-row loops **/
+    private static final int[] SIZES = {64, 67, 300, 1030};
+
+    private static double[] random(int length, Random random) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble() - 0.5;
+        }
+        return values;
+    }
+
+    private static double[] multiply(double[] a, int n, double[] x) {
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                y[i] += a[i * n + j] * x[j];
+            }
+        }
+        return y;
+    }
+
+    private static double[] transposeMultiply(double[] a, int n, double[] x) {
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                y[i] += a[j * n + i] * x[j];
+            }
+        }
+        return y;
+    }
+
+    private static double[] gram(double[] a, int n) {
+        double[] c = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < n; k++) {
+                    c[i * n + j] += a[k * n + i] * a[k * n + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Runs in a pool of four threads, so large kernels are split between workers even on one core
+     */
+    private static <T> T inPool(Callable<T> task) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            return pool.submit(task).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void productsEqualPlainLoops() throws Exception {
+        Random random = new Random(6);
+        for (final int n : SIZES) {
+            final double[] a = random(n * n, random);
+            final double[] x = random(n, random);
+            final double[] y = new double[n];
+            inPool(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    DenseKernels.multiply(a, n, x, y);
+                    return null;
+                }
+            });
+            assertArrayEquals(multiply(a, n, x), y, 0);
+            inPool(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    DenseKernels.transposeMultiply(a, n, x, y);
+                    return null;
+                }
+            });
+            assertArrayEquals(transposeMultiply(a, n, x), y, 0);
+        }
+    }
+
+    @Test
+    public void gramEqualsPlainLoops() throws Exception {
+        Random random = new Random(7);
+        for (final int n : new int[] {64, 67, 130}) {
+            final double[] a = random(n * n, random);
+            double[] c = inPool(new Callable<double[]>() {
+                @Override
+                public double[] call() {
+                    return DenseKernels.gram(a, n);
+                }
+            });
+            assertArrayEquals(gram(a, n), c, 0);
+        }
+    }
+
+    /**
+     * Matrix switches to the kernels at BLOCKED_SIZE, results must not change at the switch
+     */
+    @Test
+    public void matrixUsesKernelsWithoutChangingResults() {
+        Random random = new Random(8);
+        int n = DenseKernels.BLOCKED_SIZE;
+        double[] a = random(n * n, random);
+        double[] x = random(n, random);
+        Matrix m = new Matrix(n, a.clone());
+        assertArrayEquals(multiply(a, n, x), m.transform(x), 0);
+        assertArrayEquals(transposeMultiply(a, n, x), m.transposeTransform(x), 0);
+        assertArrayEquals(gram(a, n), m.normalMatrix().getValues(), 0);
+    }
+}
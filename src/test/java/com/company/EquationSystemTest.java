@@ -0,0 +1,155 @@
+package com.company;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EquationSystemTest {
+
+    /**
+     * f(x) = x^2 + c with analytic derivative, a root at sqrt(-c) for negative c
+     */
+    private static Function[] square(final double c) {
+        return new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return x[0] * x[0] + c;
+                }
+
+                @Override
+                public boolean derivative(double[] x, double[] result) {
+                    result[0] = 2 * x[0];
+                    return true;
+                }
+            }
+        };
+    }
+
+    /**
+     * f'(0) = 0, the start must be given up at once rather than iterated on NaN
+     */
+    @Test
+    public void stopsAtSingularJacobian() {
+        EquationSystem system = new EquationSystem(square(1));
+        double[] x = system.universalMethod(1e-12, 1000000, new double[] {0});
+        assertEquals(0, x[0], 0);
+        assertEquals(1, system.getJacobianEvaluations());
+        assertEquals(1, system.discrepancy(x), 0);
+    }
+
+    @Test
+    public void solvesFromRegularStart() {
+        EquationSystem system = new EquationSystem(square(-4));
+        double[] x = system.universalMethod(1e-12, 100, new double[] {1});
+        assertEquals(2, x[0], 1e-12);
+    }
+
+    @Test
+    public void stopsWhenIterationsCannotReachRoot() {
+        EquationSystem system = new EquationSystem(square(1));
+        double[] x = system.universalMethod(1e-12, 1000000, new double[] {0.5});
+        assertTrue(system.getJacobianEvaluations() < 1000);
+        assertTrue(system.discrepancy(x) >= 1);
+    }
+
+    /**
+     * f(x) = sqrt(x) - 0.5 is NaN below 0, where the Newton step from x = 9 lands without bounds
+     */
+    @Test
+    public void projectionKeepsIteratesAndTrialPointsInBounds() {
+        final boolean[] outside = {false};
+        EquationSystem system = new EquationSystem(new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    outside[0] |= x[0] < 0;
+                    return Math.sqrt(x[0]) - 0.5;
+                }
+            }
+        });
+        system.setBounds(new double[] {0}, new double[] {Double.POSITIVE_INFINITY});
+        double[] x = system.universalMethod(1e-12, 100, new double[] {9});
+        assertFalse(outside[0]);
+        assertEquals(0.25, x[0], 1e-10);
+    }
+
+    /**
+     * Root x = -1 is outside [0, 10], the projected solve ends at the bound instead of leaving the box
+     */
+    @Test
+    public void projectionStopsAtBoundWithoutRootInside() {
+        EquationSystem system = new EquationSystem(new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return x[0] + 1;
+                }
+            }
+        });
+        system.setBounds(new double[] {0}, new double[] {10});
+        double[] x = system.universalMethod(1e-12, 1000000, new double[] {5});
+        assertEquals(0, x[0], 0);
+        assertTrue(system.getJacobianEvaluations() < 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBounds() {
+        new EquationSystem(square(-1)).setBounds(new double[] {1}, new double[] {0});
+    }
+
+    /**
+     * x0^2 + x1^2 = 4, exp(x0 - 1) = x1
+     */
+    private static Function[] circleAndExponent() {
+        return new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return x[0] * x[0] + x[1] * x[1] - 4;
+                }
+            },
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return Math.exp(x[0] - 1) - x[1];
+                }
+            }
+        };
+    }
+
+    private static EquationSystem solved(EquationSystem.JacobianMode mode, double[] initial, double[] root) {
+        EquationSystem system = new EquationSystem(circleAndExponent());
+        system.setJacobianMode(mode);
+        double[] x = system.universalMethod(1e-13, 1000, initial);
+        assertTrue(system.discrepancy(x) < 1e-20);
+        if (root != null) {
+            assertEquals(root[0], x[0], 1e-12);
+            assertEquals(root[1], x[1], 1e-12);
+        }
+        return system;
+    }
+
+    /**
+     * Near the root one Jacobian serves the whole solve, far from it a stalled iteration refreshes it
+     */
+    @Test
+    public void quasiNewtonModesReuseJacobian() {
+        for (double[] initial : new double[][] {{1.5, 1.5}, {4, 0.1}}) {
+            EquationSystem newton = new EquationSystem(circleAndExponent());
+            double[] root = newton.universalMethod(1e-13, 1000, initial);
+            assertTrue(newton.discrepancy(root) < 1e-20);
+            assertEquals(0, newton.getJacobianReuses());
+            for (EquationSystem.JacobianMode mode : new EquationSystem.JacobianMode[] {
+                    EquationSystem.JacobianMode.CHORD, EquationSystem.JacobianMode.BROYDEN}) {
+                EquationSystem system = solved(mode, initial, root);
+                assertTrue(system.getJacobianReuses() > 0);
+                assertTrue(2 * system.getJacobianEvaluations() < newton.getJacobianEvaluations());
+            }
+        }
+        assertEquals(1, solved(EquationSystem.JacobianMode.CHORD, new double[] {1.5, 1.5}, null).getJacobianEvaluations());
+        assertTrue(solved(EquationSystem.JacobianMode.CHORD, new double[] {4, 0.1}, null).getJacobianEvaluations() > 1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.company;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncompleteLUTest {
+
+    /**
+     * LU of a tridiagonal matrix has no fill-in, so ILU(0) is the exact factorisation
+     */
+    @Test
+    public void tridiagonalFactorIsExact() {
+        int n = 8;
+        double[][] rows = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            rows[i][i] = 4 + i;
+            if (i > 0) {
+                rows[i][i - 1] = -1 - 0.1 * i;
+            }
+            if (i + 1 < n) {
+                rows[i][i + 1] = -2 + 0.1 * i;
+            }
+        }
+        SparseMatrix a = SparseMatrix.fromDense(new Matrix(rows));
+        IncompleteLU ilu = new IncompleteLU(a);
+        ilu.factor(a);
+        assertFalse(ilu.isSingular());
+
+        /** Thomas algorithm: U diagonal u, L sub-diagonal l, U super-diagonal is that of A **/
+        double[] l = new double[n];
+        double[] u = new double[n];
+        u[0] = rows[0][0];
+        for (int i = 1; i < n; i++) {
+            l[i] = rows[i][i - 1] / u[i - 1];
+            u[i] = rows[i][i] - l[i] * rows[i - 1][i];
+        }
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = 1 + i % 3;
+        }
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = b[i] - (i > 0 ? l[i] * expected[i - 1] : 0);
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            expected[i] = (expected[i] - (i + 1 < n ? rows[i][i + 1] * expected[i + 1] : 0)) / u[i];
+        }
+
+        double[] z = new double[n];
+        ilu.apply(b, z);
+        assertArrayEquals(expected, z, 1e-12);
+        assertArrayEquals(new Matrix(rows).lu().solve(b), z, 1e-12);
+    }
+
+    @Test
+    public void detectsZeroPivot() {
+        SparseMatrix a = SparseMatrix.fromDense(new Matrix(new double[][] {{1, 1}, {1, 1}}));
+        IncompleteLU ilu = new IncompleteLU(a);
+        ilu.factor(a);
+        assertTrue(ilu.isSingular());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresDiagonal() {
+        new IncompleteLU(new SparseMatrix(new int[][] {{1}, {0}}));
+    }
+}
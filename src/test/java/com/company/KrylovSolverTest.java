@@ -0,0 +1,162 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KrylovSolverTest {
+
+    private static final int N = 60;
+
+    /**
+     * Nonsymmetric banded matrix, diagonally dominant; column j is scaled by scale[j]
+     */
+    private static Matrix banded(double[] scale) {
+        double[][] rows = new double[N][N];
+        for (int i = 0; i < N; i++) {
+            rows[i][i] = 4 + 0.1 * i;
+            if (i > 0) {
+                rows[i][i - 1] = -0.5;
+            }
+            if (i + 1 < N) {
+                rows[i][i + 1] = -1.5;
+            }
+            if (i + 3 < N) {
+                rows[i][i + 3] = 0.7;
+            }
+        }
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                rows[i][j] *= scale[j];
+            }
+        }
+        return new Matrix(rows);
+    }
+
+    private static double[] ones() {
+        double[] scale = new double[N];
+        Arrays.fill(scale, 1);
+        return scale;
+    }
+
+    private static double[] right(long seed) {
+        Random random = new Random(seed);
+        double[] b = new double[N];
+        for (int i = 0; i < N; i++) {
+            b[i] = random.nextDouble() - 0.5;
+        }
+        return b;
+    }
+
+    private static void assertSolution(double[] expected, double[] actual) {
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], actual[i], 1e-7 * Math.max(1, Math.abs(expected[i])));
+        }
+    }
+
+    @Test
+    public void bothMethodsAgreeWithLU() {
+        Matrix a = banded(ones());
+        double[] b = right(1);
+        double[] expected = a.lu().solve(b);
+        for (KrylovSolver.Method method : KrylovSolver.Method.values()) {
+            KrylovSolver solver = new KrylovSolver(N, method);
+            double[] x = new double[N];
+            assertTrue(method.name(), solver.solve(a, b, x));
+            assertTrue(solver.getResidualNorm() <= 1e-10 * Math.sqrt(dot(b, b)));
+            assertSolution(expected, x);
+        }
+    }
+
+    /**
+     * Sparse operator with an incomplete LU: BiCGSTAB is right preconditioned, so the result is
+     * the same and fewer iterations are needed
+     */
+    @Test
+    public void incompleteLUSpeedsUpBiCGSTAB() {
+        Matrix dense = banded(ones());
+        SparseMatrix a = SparseMatrix.fromDense(dense);
+        double[] b = right(2);
+        double[] expected = dense.lu().solve(b);
+
+        KrylovSolver solver = new KrylovSolver(N, KrylovSolver.Method.BICGSTAB);
+        double[] x = new double[N];
+        assertTrue(solver.solve(a, b, x));
+        long plain = solver.getIterations();
+
+        IncompleteLU ilu = new IncompleteLU(a);
+        ilu.factor(a);
+        solver.setPreconditioner(ilu);
+        x = new double[N];
+        assertTrue(solver.solve(a, b, x));
+        assertSolution(expected, x);
+        assertTrue(solver.getIterations() < plain);
+    }
+
+    /**
+     * Columns of very different scale make A^T A badly conditioned; its diagonal undoes the scaling
+     */
+    @Test
+    public void jacobiPreconditionerSpeedsUpCGNR() {
+        double[] scale = new double[N];
+        for (int j = 0; j < N; j++) {
+            scale[j] = Math.pow(10, j % 4);
+        }
+        Matrix a = banded(scale);
+        double[] b = right(3);
+        double[] expected = a.lu().solve(b);
+
+        KrylovSolver solver = new KrylovSolver(N, KrylovSolver.Method.CGNR);
+        solver.setMaxIterations(100000);
+        double[] x = new double[N];
+        assertTrue(solver.solve(a, b, x));
+        long plain = solver.getIterations();
+
+        solver.setPreconditioner(KrylovSolver.jacobi(a, KrylovSolver.Method.CGNR));
+        x = new double[N];
+        assertTrue(solver.solve(a, b, x));
+        assertSolution(expected, x);
+        assertTrue(solver.getIterations() < plain);
+    }
+
+    @Test
+    public void iterationLimitIsReported() {
+        KrylovSolver solver = new KrylovSolver(N, KrylovSolver.Method.CGNR);
+        solver.setMaxIterations(2);
+        assertFalse(solver.solve(banded(ones()), right(4), new double[N]));
+        assertEquals(2, solver.getIterations());
+    }
+
+    @Test
+    public void zeroRightSideGivesZero() {
+        KrylovSolver solver = new KrylovSolver(N, KrylovSolver.Method.BICGSTAB);
+        double[] x = right(5);
+        assertTrue(solver.solve(banded(ones()), new double[N], x));
+        assertArrayEquals(new double[N], x, 0);
+        assertEquals(0, solver.getIterations());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeTolerance() {
+        new KrylovSolver(N, KrylovSolver.Method.CGNR).setTolerance(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNaNTolerance() {
+        new KrylovSolver(N, KrylovSolver.Method.CGNR).setTolerance(Double.NaN);
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
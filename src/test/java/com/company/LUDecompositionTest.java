@@ -0,0 +1,53 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LUDecompositionTest {
+
+    @Test
+    public void solvesAsGaussMethod() {
+        Random random = new Random(1);
+        for (int n : new int[] {1, 2, 5, 17}) {
+            double[][] rows = new double[n][n];
+            double[] b = new double[n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    rows[i][j] = random.nextDouble() - 0.5;
+                }
+                b[i] = random.nextDouble();
+            }
+            Matrix m = new Matrix(rows);
+            LUDecomposition lu = m.lu();
+            assertFalse(lu.isSingular());
+            assertArrayEquals(m.gaussMethod(b), lu.solve(b), 1e-9);
+        }
+    }
+
+    @Test
+    public void factorOfRowsEqualsFactorOfMatrix() {
+        double[][] rows = {{0, 2, 1}, {1, 1, 0}, {3, 0, 4}};
+        double[] b = {1, 2, 3};
+        LUDecomposition lu = new LUDecomposition(3);
+        lu.factor(rows);
+        assertArrayEquals(new Matrix(rows).gaussMethod(b), lu.solve(b), 1e-12);
+        assertArrayEquals(new LUDecomposition(new Matrix(rows)).solve(b), lu.solve(b), 0);
+    }
+
+    @Test
+    public void detectsSingularMatrix() {
+        LUDecomposition lu = new LUDecomposition(new Matrix(new double[][] {{1, 2}, {2, 4}}));
+        assertTrue(lu.isSingular());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSameArrayForRightSideAndSolution() {
+        double[] b = {1, 1};
+        new LUDecomposition(new Matrix(new double[][] {{1, 0}, {0, 1}})).solve(b, b);
+    }
+}
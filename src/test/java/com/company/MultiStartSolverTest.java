@@ -0,0 +1,106 @@
+package com.company;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiStartSolverTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * f(x) = x^2 - 4 with roots -2 and 2. Evaluations at negative x sleep for delay milliseconds,
+     * so a start from a negative x is slow, random starts in [0, 1) are fast and end at 2
+     */
+    private static EquationSystem slowOnNegativeSide(final long delay) {
+        return new EquationSystem(new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    if (x[0] < 0) {
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return x[0] * x[0] - 4;
+                }
+
+                @Override
+                public boolean derivative(double[] x, double[] result) {
+                    result[0] = 2 * x[0];
+                    return true;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void deterministicSolveTakesEarliestStart() {
+        MultiStartSolver solver = new MultiStartSolver(slowOnNegativeSide(20), 4, 1, executor);
+        solver.setDeterministic(true);
+        double[] x = solver.solve(1e-12, 100, new double[] {-3}, MultiStartSolver.discrepancyBelow(1e-20));
+        assertEquals(-2, x[0], 1e-12);
+    }
+
+    /**
+     * The first start sleeps for a minute, the solve must take a faster answer and interrupt it
+     */
+    @Test
+    public void firstAcceptedAnswerWinsAndCancelsOthers() throws InterruptedException {
+        MultiStartSolver solver = new MultiStartSolver(slowOnNegativeSide(60000), 4, 1, executor);
+        long start = System.nanoTime();
+        double[] x = solver.solve(1e-12, 100, new double[] {-3}, MultiStartSolver.discrepancyBelow(1e-20));
+        assertEquals(2, x[0], 1e-12);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+    }
+
+    @Test
+    public void returnsNullWithoutAcceptedStart() {
+        EquationSystem system = new EquationSystem(new Function[] {
+            new Function() {
+                @Override
+                public double calculate(double[] x) {
+                    return x[0] * x[0] + 1;
+                }
+            }
+        });
+        MultiStartSolver solver = new MultiStartSolver(system, 2, 3, executor);
+        assertNull(solver.solve(1e-12, 100, null, MultiStartSolver.discrepancyBelow(1e-20)));
+    }
+
+    @Test
+    public void interruptedSolveThrowsAndKeepsFlag() {
+        MultiStartSolver solver = new MultiStartSolver(slowOnNegativeSide(60000), 1, 1, executor);
+        Thread.currentThread().interrupt();
+        try {
+            solver.solve(1e-12, 100, new double[] {-3}, MultiStartSolver.discrepancyBelow(1e-20));
+            fail("Interrupted solve returned");
+        } catch (CancellationException expected) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Generated equations against the hand-written ones Main had before the model was declarative
+ */
+public class ReactorModelTest {
+
+    private static final String[] CHLORIDES = {"HCl", "AlCl", "AlCl2", "AlCl3", "H2"};
+    private static final String[] NITRIDES = {"HCl", "GaCl", "NH3", "AlCl3", "H2"};
+
+    private static double[] d(String[] gases, double T) {
+        double[] d = new double[gases.length];
+        for (int i = 0; i < gases.length; i++) {
+            d[i] = DataHolder.getD(gases[i], T);
+        }
+        return d;
+    }
+
+    /**
+     * Equations of the original Main.solveAlClx
+     */
+    private static double[] alClx(double T, double[] p, double[] d, double[] x) {
+        double k1 = DataHolder.getK(T, 1);
+        double k2 = DataHolder.getK(T, 2);
+        double k3 = DataHolder.getK(T, 3);
+        return new double[] {
+            x[0] * x[0] - k1 * x[1] * x[1] * x[4],
+            x[0] * x[0] - k2 * x[2] * x[4],
+            Math.pow(x[0], 6) - k3 * x[3] * x[3] * x[4] * x[4] * x[4],
+            d[0] * (p[0] - x[0]) + 2 * d[4] * (p[4] - x[4]),
+            d[1] * (p[1] - x[1]) + 2 * d[2] * (p[2] - x[2]) + 3 * d[3] * (p[3] - x[3]) + d[0] * (p[0] - x[0])
+        };
+    }
+
+    /**
+     * Equations of the original Main.solveAlGaN, x[5] is the AlN fraction
+     */
+    private static double[] alGaN(double T, double[] p, double[] d, double[] x) {
+        double k9 = DataHolder.getK(T, 9);
+        double k10 = DataHolder.getK(T, 10);
+        return new double[] {
+            x[3] * x[2] - k9 * x[5] * x[0] * x[0] * x[0],
+            x[1] * x[2] - k10 * (1 - x[5]) * x[0] * x[4],
+            d[0] * (p[0] - x[0]) + 2 * d[4] * (p[4] - x[4]) + 3 * d[2] * (p[2] - x[2]),
+            3 * d[3] * (p[3] - x[3]) + d[1] * (p[1] - x[1]) + d[0] * (p[0] - x[0]),
+            d[3] * (p[3] - x[3]) + d[1] * (p[1] - x[1]) - d[2] * (p[2] - x[2]),
+            d[3] * (p[3] - x[3]) - x[5] * (d[1] * (p[1] - x[1]) + d[3] * (p[3] - x[3]))
+        };
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-12 * Math.max(1, Math.abs(expected)));
+    }
+
+    @Test
+    public void chlorideModelHasOriginalEquations() {
+        ReactorModel model = Main.getChlorideModel("Al");
+        double[] p = {10000, 0, 0, 0, 0};
+        Random random = new Random(4);
+        for (double T : new double[] {623, 873, 1373}) {
+            double[] d = d(CHLORIDES, T);
+            Function[] functions = model.functions(T, p, d);
+            for (int trial = 0; trial < 20; trial++) {
+                double[] x = new double[5];
+                for (int i = 0; i < 5; i++) {
+                    x[i] = 10000 * random.nextDouble();
+                }
+                double[] expected = alClx(T, p, d, x);
+                for (int e = 0; e < 5; e++) {
+                    assertClose(expected[e], functions[e].calculate(x));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void alGaNModelHasOriginalEquations() {
+        ReactorModel model = Main.getAlGaNModel();
+        double[] p = {0, 20, 1500, 10, 0};
+        Random random = new Random(5);
+        double T = 1373;
+        double[] d = d(NITRIDES, T);
+        Function[] functions = model.functions(T, p, d);
+        for (int trial = 0; trial < 20; trial++) {
+            double[] x = new double[6];
+            for (int i = 0; i < 5; i++) {
+                x[i] = 1500 * random.nextDouble();
+            }
+            x[5] = random.nextDouble();
+            double[] expected = alGaN(T, p, d, x);
+            for (int e = 0; e < 6; e++) {
+                assertClose(expected[e], functions[e].calculate(x));
+            }
+        }
+    }
+
+    /**
+     * Analytic derivatives of the generated equations against central differences of the original ones
+     */
+    @Test
+    public void analyticDerivativesMatchOriginalEquations() {
+        ReactorModel model = Main.getAlGaNModel();
+        double[] p = {0, 20, 1500, 10, 0};
+        double T = 1373;
+        double[] d = d(NITRIDES, T);
+        Function[] functions = model.functions(T, p, d);
+        double[] x = {3, 12, 1400, 0.5, 9, 0.3};
+        double[] derivative = new double[6];
+        for (int e = 0; e < 6; e++) {
+            functions[e].derivative(x, derivative);
+            for (int i = 0; i < 6; i++) {
+                double h = 1e-6 * Math.max(1, Math.abs(x[i]));
+                double[] plus = x.clone();
+                double[] minus = x.clone();
+                plus[i] += h;
+                minus[i] -= h;
+                double expected = (alGaN(T, p, d, plus)[e] - alGaN(T, p, d, minus)[e]) / (2 * h);
+                assertEquals(expected, derivative[i], 1e-6 * Math.max(1, Math.abs(expected)));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownGasInReaction() {
+        new ReactorModel.Builder()
+            .gas("HCl", "H2")
+            .reaction("2 HCl + 2 Al = 2 AlCl + H2")
+            .balance("H")
+            .build()
+            .functions(1000, new double[2], new double[] {1, 1});
+    }
+}
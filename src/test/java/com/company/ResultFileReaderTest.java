@@ -0,0 +1,124 @@
+package com.company;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ResultFileReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] NAMES = {"T", "x", "pressure"};
+
+    /**
+     * Values that need the slow parsing path as well as the exact fast one
+     */
+    private static final double[][] RECORDS = {
+        {300, 0.1, 101325},
+        {1e-300, -2.5e22, Double.MIN_VALUE},
+        {1234.5678, 1.0 / 3, -0.0},
+        {Double.MAX_VALUE, 9007199254740993.0, 6.02214076e23},
+    };
+
+    private static void write(ResultSink sink) throws IOException {
+        try {
+            for (double[] record : RECORDS) {
+                PointResult result = new PointResult();
+                for (int i = 0; i < NAMES.length; i++) {
+                    result.add(NAMES[i], record[i]);
+                }
+                sink.accept(result);
+            }
+        } finally {
+            sink.close();
+        }
+    }
+
+    private static void check(ResultCollector collector) {
+        assertArrayEquals(NAMES, collector.getNames());
+        assertEquals(RECORDS.length, collector.size());
+        for (int i = 0; i < NAMES.length; i++) {
+            double[] column = collector.getColumn(NAMES[i]);
+            for (int r = 0; r < RECORDS.length; r++) {
+                assertEquals(Double.doubleToLongBits(RECORDS[r][i]), Double.doubleToLongBits(column[r]));
+            }
+        }
+    }
+
+    @Test
+    public void readsWhatTextSinkWrote() throws IOException {
+        File file = folder.newFile("results.txt");
+        write(new TextResultSink(file.getPath()));
+        check(ResultCollector.readText(file.getPath()));
+    }
+
+    @Test
+    public void readsWhatBinarySinkWrote() throws IOException {
+        File file = folder.newFile("results.bin");
+        write(new BinaryResultSink(file.getPath()));
+        check(ResultCollector.readBinary(file.getPath()));
+    }
+
+    @Test
+    public void readsEmptyFiles() throws IOException {
+        File file = folder.newFile("empty");
+        assertEquals(0, ResultCollector.readText(file.getPath()).size());
+        assertEquals(0, ResultCollector.readBinary(file.getPath()).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTextAsBinary() throws IOException {
+        File file = folder.newFile("results.txt");
+        write(new TextResultSink(file.getPath()));
+        ResultCollector.readBinary(file.getPath());
+    }
+
+    private String text(String content) throws IOException {
+        File file = folder.newFile();
+        Writer out = new FileWriter(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file.getPath();
+    }
+
+    private static void rejected(String fileName, String message) {
+        try {
+            ResultCollector.readText(fileName);
+            fail("Read " + message);
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedLastRecord() throws IOException {
+        assertEquals(2, ResultCollector.readText(text("T = 1\nx = 2\nT = 3\nx = 4\n")).size());
+        rejected(text("T = 1\nx = 2\nT = 3\nx = 4\nT = 5\n"), "a truncated record");
+    }
+
+    @Test
+    public void rejectsValuesWithoutDigits() throws IOException {
+        rejected(text("T = 1\nx = \n"), "an empty value");
+        rejected(text("T = 1\nx = .\n"), "a lone point");
+        rejected(text("T = 1\nx = -\n"), "a lone sign");
+        rejected(text("T = 1\nx = .e5\n"), "an exponent without mantissa");
+    }
+
+    @Test
+    public void readsNonFiniteValues() throws IOException {
+        double[] x = ResultCollector.readText(text("x = NaN\nx = -Infinity\nx = -.5\n")).getColumn("x");
+        assertArrayEquals(new double[] {Double.NaN, Double.NEGATIVE_INFINITY, -0.5}, x, 0);
+    }
+}
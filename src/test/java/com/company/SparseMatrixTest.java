@@ -0,0 +1,91 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SparseMatrixTest {
+
+    /**
+     * Random n x n matrix with about a third of its elements non-zero
+     */
+    private static double[][] randomRows(int n, long seed) {
+        Random random = new Random(seed);
+        double[][] rows = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (random.nextInt(3) == 0) {
+                    rows[i][j] = random.nextDouble() - 0.5;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static double[] multiply(double[][] rows, double[] x, boolean transpose) {
+        int n = rows.length;
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                y[i] += (transpose ? rows[j][i] : rows[i][j]) * x[j];
+            }
+        }
+        return y;
+    }
+
+    @Test
+    public void applyAgreesWithDense() {
+        int n = 12;
+        double[][] rows = randomRows(n, 2);
+        SparseMatrix sparse = SparseMatrix.fromDense(new Matrix(rows));
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i - 4.5;
+        }
+        double[] y = new double[n];
+        sparse.apply(x, y);
+        assertArrayEquals(multiply(rows, x, false), y, 1e-12);
+        sparse.applyTranspose(x, y);
+        assertArrayEquals(multiply(rows, x, true), y, 1e-12);
+    }
+
+    @Test
+    public void keepsOnlyNonZeros() {
+        double[][] rows = randomRows(9, 3);
+        SparseMatrix sparse = SparseMatrix.fromDense(new Matrix(rows));
+        int nonZeros = 0;
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows.length; j++) {
+                assertEquals(rows[i][j], sparse.get(i, j), 0);
+                if (rows[i][j] != 0) {
+                    nonZeros++;
+                }
+            }
+        }
+        assertEquals(nonZeros, sparse.nonZeros());
+        double[][] copy = new double[rows.length][rows.length];
+        sparse.copyTo(copy);
+        for (int i = 0; i < rows.length; i++) {
+            assertArrayEquals(rows[i], copy[i], 0);
+        }
+    }
+
+    @Test
+    public void setChangesOnlyStructuralElements() {
+        SparseMatrix sparse = new SparseMatrix(new int[][] {{0, 1}, {1}});
+        sparse.set(0, 1, 2);
+        sparse.set(1, 1, 3);
+        double[] y = new double[2];
+        sparse.apply(new double[] {1, 1}, y);
+        assertArrayEquals(new double[] {2, 3}, y, 0);
+        try {
+            sparse.set(1, 0, 1);
+            throw new AssertionError("(1, 0) is not in the structure");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, sparse.get(1, 0), 0);
+        }
+    }
+}
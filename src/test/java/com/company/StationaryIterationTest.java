@@ -0,0 +1,191 @@
+package com.company;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StationaryIterationTest {
+
+    private static final int N = 100;
+
+    /**
+     * tridiag(-1, 4, -1), the Jacobi iteration matrix has spectral radius cos(pi / (n + 1)) / 2
+     */
+    private static SparseMatrix tridiagonal(int n) {
+        int[][] columns = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - 1);
+            int to = Math.min(n - 1, i + 1);
+            columns[i] = new int[to - from + 1];
+            for (int j = from; j <= to; j++) {
+                columns[i][j - from] = j;
+            }
+        }
+        SparseMatrix a = new SparseMatrix(columns);
+        for (int i = 0; i < n; i++) {
+            a.set(i, i, 4);
+            if (i > 0) {
+                a.set(i, i - 1, -1);
+            }
+            if (i + 1 < n) {
+                a.set(i, i + 1, -1);
+            }
+        }
+        return a;
+    }
+
+    private static double[] right(int n, long seed) {
+        Random random = new Random(seed);
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = random.nextDouble() - 0.5;
+        }
+        return b;
+    }
+
+    private static double[] luSolve(SparseMatrix a, double[] b) {
+        double[][] rows = new double[a.size()][a.size()];
+        a.copyTo(rows);
+        return new Matrix(rows).lu().solve(b);
+    }
+
+    /**
+     * One relaxed Gauss-Seidel sweep over the rows in the given order, written out plainly
+     */
+    private static void sweep(SparseMatrix a, double[] b, double[] x, double relaxation, int[] order) {
+        for (int i : order) {
+            double sum = b[i];
+            for (int j = 0; j < a.size(); j++) {
+                if (j != i && a.index(i, j) >= 0) {
+                    sum -= a.get(i, j) * x[j];
+                }
+            }
+            x[i] = relaxation * sum * (1 / a.get(i, i)) + (1 - relaxation) * x[i];
+        }
+    }
+
+    @Test
+    public void bothMethodsReachLUSolution() {
+        SparseMatrix a = tridiagonal(N);
+        double[] b = right(N, 1);
+        double[] expected = luSolve(a, b);
+        StationaryIteration iteration = new StationaryIteration(a);
+
+        double[] jacobi = new double[N];
+        assertTrue(iteration.solve(StationaryIteration.Method.JACOBI, b, jacobi, 10000, 1e-14, 1));
+        assertArrayEquals(expected, jacobi, 1e-12);
+        long jacobiIterations = iteration.getIterations();
+        double jacobiRate = iteration.getRate();
+        assertEquals(0, iteration.getColors());
+
+        double[] seidel = new double[N];
+        assertTrue(iteration.solve(StationaryIteration.Method.GAUSS_SEIDEL, b, seidel, 10000, 1e-14, 1));
+        assertArrayEquals(expected, seidel, 1e-12);
+        assertTrue(iteration.getIterations() < jacobiIterations);
+        assertEquals(Math.cos(Math.PI / (N + 1)) / 2, jacobiRate, 0.05);
+        /** Gauss-Seidel squares the spectral radius of Jacobi **/
+        assertTrue(iteration.getRate() < 0.3);
+    }
+
+    /**
+     * Red-black colouring: a sweep is even rows then odd rows, exactly as done one by one
+     */
+    @Test
+    public void tridiagonalSweepIsRedBlack() {
+        SparseMatrix a = tridiagonal(N);
+        double[] b = right(N, 2);
+        StationaryIteration iteration = new StationaryIteration(a);
+        double[] x = new double[N];
+        iteration.solve(StationaryIteration.Method.GAUSS_SEIDEL, b, x, 3, 0, 1.2);
+        assertEquals(2, iteration.getColors());
+
+        int[] order = new int[N];
+        for (int k = 0; k < N; k++) {
+            order[k] = k < N / 2 ? 2 * k : 2 * (k - N / 2) + 1;
+        }
+        double[] expected = new double[N];
+        for (int sweep = 0; sweep < 3; sweep++) {
+            sweep(a, b, expected, 1.2, order);
+        }
+        assertArrayEquals(expected, x, 0);
+    }
+
+    /**
+     * Every row of a dense matrix is a neighbour of every other, so the sweep is the plain one in row order
+     */
+    @Test
+    public void denseMatrixGetsColourPerRow() {
+        int n = 12;
+        Random random = new Random(3);
+        double[][] rows = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                rows[i][j] = i == j ? n : random.nextDouble() + 0.1;
+            }
+        }
+        SparseMatrix a = SparseMatrix.fromDense(new Matrix(rows));
+        double[] b = right(n, 4);
+        StationaryIteration iteration = new StationaryIteration(a);
+        double[] x = new double[n];
+        iteration.solve(StationaryIteration.Method.GAUSS_SEIDEL, b, x, 2, 0, 1);
+        assertEquals(n, iteration.getColors());
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        double[] expected = new double[n];
+        sweep(a, b, expected, 1, order);
+        sweep(a, b, expected, 1, order);
+        assertArrayEquals(expected, x, 0);
+    }
+
+    /**
+     * Red rows take only old black values and black rows only new red ones
+     */
+    @Test
+    public void seidelNormsSplitJacobiNorm() {
+        StationaryIteration iteration = new StationaryIteration(tridiagonal(N));
+        assertEquals(0.5, iteration.getJacobiNorm(), 0);
+        assertArrayEquals(new double[] {0.5, 0.5}, iteration.getSeidelNorms(), 0);
+    }
+
+    /**
+     * Over-relaxation near the optimal w = 2 / (1 + sqrt(1 - rho^2)) converges faster than w = 1
+     */
+    @Test
+    public void overRelaxationConvergesFaster() {
+        SparseMatrix a = tridiagonal(N);
+        double[] b = right(N, 5);
+        double[] expected = luSolve(a, b);
+        StationaryIteration iteration = new StationaryIteration(a);
+
+        double[] x = new double[N];
+        assertTrue(iteration.solve(StationaryIteration.Method.GAUSS_SEIDEL, b, x, 10000, 1e-14, 1));
+        long plain = iteration.getIterations();
+
+        x = new double[N];
+        assertTrue(iteration.solve(StationaryIteration.Method.GAUSS_SEIDEL, b, x, 10000, 1e-14, 1.07));
+        assertArrayEquals(expected, x, 1e-12);
+        assertTrue(iteration.getIterations() < plain);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroDiagonal() {
+        SparseMatrix a = tridiagonal(4);
+        a.set(2, 2, 0);
+        new StationaryIteration(a);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingDiagonal() {
+        SparseMatrix a = new SparseMatrix(new int[][] {{0, 1}, {0}});
+        a.set(0, 0, 1);
+        a.set(1, 0, 1);
+        new StationaryIteration(a);
+    }
+}